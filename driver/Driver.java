@@ -213,30 +213,14 @@ public class Driver {
 		
 		LinkedListGraph dfs = g.depthFirstSearch(ORDER_FIELD, 2 * VERTICES, true);
 		System.out.println(dfs);
-		System.out.println("Tree edges in original graph:");
-		LinkedList<Edge> treeEdges = g.getEdgesByProperty(Graph.EDGE_TYPE, Graph.TREE_EDGE);
-		ListIterator<Edge> it = treeEdges.listIterator();
-		while (it.hasNext()) {
-			System.out.println(it.next());
-		}
-		System.out.println("Back edges:");
-		LinkedList<Edge> backEdges = g.getEdgesByProperty(Graph.EDGE_TYPE, Graph.BACK_EDGE);
-		it = backEdges.listIterator();
-		while (it.hasNext()) {
-			System.out.println(it.next());
-		}
-		System.out.println("Forward edges:");
-		LinkedList<Edge> fwdEdges = g.getEdgesByProperty(Graph.EDGE_TYPE, Graph.FORWARD_EDGE);
-		it = fwdEdges.listIterator();
-		while (it.hasNext()) {
-			System.out.println(it.next());
-		}
-		System.out.println("Cross edges:");
-		LinkedList<Edge> crossEdges = g.getEdgesByProperty(Graph.EDGE_TYPE, Graph.CROSS_EDGE);
-		it = crossEdges.listIterator();
-		while (it.hasNext()) {
-			System.out.println(it.next());
-		
+		System.out.println("Edge types in original graph:");
+		final String[] TYPE_NAMES = {"", "tree", "back", "forward", "cross"};
+		byte[] types = g.classifyEdges(ORDER_FIELD, 2 * VERTICES, true);
+		int k = 0;
+		for (int u = 'q'; u <= 'z'; ++u) {
+			for (Edge e : g.getEdges(u)) {
+				System.out.println(e + " " + TYPE_NAMES[types[k++]]);
+			}
 		}
 		*/
 		
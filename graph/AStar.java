@@ -0,0 +1,73 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * A* search (Hart, Nilsson and Raphael, "A formal basis for the heuristic
+ * determination of minimum cost paths", 1968) over a WeightedAdjacency
+ * view, shared by the weighted graph representations.
+ * Vertices are internal (no offset).
+ * This is Dijkstra's algorithm with each vertex v keyed by its distance
+ * plus an estimate of the distance from v to the target, so the search
+ * settles the vertices in the direction of the target first.
+ * @author Marshall Farrier
+ *
+ */
+final class AStar {
+	private AStar() {}
+
+	/**
+	 * Shortest path from s to t, stopping once t is settled. A vertex
+	 * whose distance is lowered after it was settled is queued again,
+	 * so the path found is a shortest path for any estimate that never
+	 * exceeds the true weight, even one that is not consistent.
+	 * Throws an IllegalArgumentException on reaching an edge
+	 * of negative weight.
+	 * @param g
+	 * @param offset Offset of the vertices passed to h
+	 * @param s
+	 * @param t
+	 * @param h
+	 * @param distance Filled in by the search, length g.vertices()
+	 * @param parent Filled in by the search, length g.vertices()
+	 * @param q Empty heap of capacity g.vertices(), which is empty again
+	 * on return and so can be reused
+	 */
+	static void search(WeightedAdjacency g, char offset, int s, int t, Heuristic h,
+			double[] distance, int[] parent, IndexedMinHeap q) {
+		final int VERTICES = g.vertices();
+		int u, v, a;
+		double w, d, estimate;
+		for (u = 0; u < VERTICES; ++u) {
+			distance[u] = Double.POSITIVE_INFINITY;
+			parent[u] = Graph.NIL_VERTEX;
+		}
+		distance[s] = 0.0;
+		q.insert(s, h.estimate(s + offset, t + offset));
+		while (!q.isEmpty()) {
+			u = q.poll();
+			if (u == t) {
+				q.clear();
+				return;
+			}
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				w = g.weight(u, a);
+				if (w < 0.0) {
+					throw new IllegalArgumentException("Negative edge weight");
+				}
+				v = g.target(u, a);
+				d = distance[u] + w;
+				// Relax (CLRS, p. 649)
+				if (d < distance[v]) {
+					distance[v] = d;
+					parent[v] = u;
+					estimate = h.estimate(v + offset, t + offset);
+					// t cannot be reached from v
+					if (estimate == Double.POSITIVE_INFINITY) continue;
+					q.offer(v, d + estimate);
+				}
+			}
+		}
+	}
+}
@@ -5,6 +5,7 @@ package graph;
 
 import java.util.LinkedList;
 import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * No edge data because of various options on implementation.
@@ -34,11 +35,12 @@ public abstract class AbstractGraph implements Graph {
 	 * labels can be 'a' to 'z' only
 	 */
 	private int [] dataFieldLabels;
-	protected int time;		// for DFS (CLRS, p. 604)
 	final int ALPHABET_SIZE = 26;	// used for dataFieldLabels
 	
 	protected static final int VERTICES_SORTED = 0;
 	protected static final int VERTEX_LOOKUP = 1;
+	// frontier vertices below which a parallel search stops splitting work
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 256;
 	
 	/**
 	 * For fast internal processing.
@@ -114,7 +116,6 @@ public abstract class AbstractGraph implements Graph {
 		directed = true;
 		charRep = false;
 		offset = 0;
-		time = 0;
 		// data need not be initialized under default constructor
 	}
 	
@@ -137,7 +138,7 @@ public abstract class AbstractGraph implements Graph {
 		if (_v < 0) {
 			throw new IllegalArgumentException("Number of vertices cannot be negative");
 		}
-		if (_v > 26) {
+		if (_v > 26 && _offset != 0) {
 			throw new IllegalArgumentException("Character representation can accommodate no more than 26 vertices");
 		}
 		if (_offset < 'A' && _offset != 0) {
@@ -146,13 +147,13 @@ public abstract class AbstractGraph implements Graph {
 		else if (_offset > 'z') {
 			throw new IllegalArgumentException("Invalid offset");
 		}
-		else if (_offset <= 'Z' && _offset + _v - 1 > 'Z') {
+		else if (_offset != 0 && _offset <= 'Z' && _offset + _v - 1 > 'Z') {
 			throw new IllegalArgumentException("Offset incompatible with number of vertices");
 		}
 		else if ('Z' < _offset && _offset < 'a') {
 			throw new IllegalArgumentException("Invalid offset");
 		}
-		else if (_offset <= 'z' && _offset + _v - 1 > 'z') {
+		else if (_offset != 0 && _offset <= 'z' && _offset + _v - 1 > 'z') {
 			throw new IllegalArgumentException("Offset incompatible with number of vertices");
 		}
 		v = _v;		
@@ -167,7 +168,7 @@ public abstract class AbstractGraph implements Graph {
 		if (_v < 0) {
 			throw new IllegalArgumentException("Number of vertices cannot be negative");
 		}
-		if (_v > 26) {
+		if (_v > 26 && _offset != 0) {
 			throw new IllegalArgumentException("Character representation can accommodate no more than 26 vertices");
 		}
 		if (_offset < 'A' && _offset != 0) {
@@ -176,13 +177,13 @@ public abstract class AbstractGraph implements Graph {
 		else if (_offset > 'z') {
 			throw new IllegalArgumentException("Invalid character");
 		}
-		else if (_offset <= 'Z' && _offset + _v - 1 > 'Z') {
+		else if (_offset != 0 && _offset <= 'Z' && _offset + _v - 1 > 'Z') {
 			throw new IllegalArgumentException("Offset incompatible with number of vertices");
 		}
 		else if ('Z' < _offset && _offset < 'a') {
 			throw new IllegalArgumentException("Invalid character");
 		}
-		else if (_offset <= 'z' && _offset + _v - 1 > 'z') {
+		else if (_offset != 0 && _offset <= 'z' && _offset + _v - 1 > 'z') {
 			throw new IllegalArgumentException("Character set incompatible with number of vertices");
 		}
 		else if (_dataFields < 0) {
@@ -552,5 +553,253 @@ public abstract class AbstractGraph implements Graph {
 		}
 	}
 	
+// traversals shared by all representations
+	/**
+	 * Read-only view of the edges of this graph for the algorithms
+	 * shared by the different representations
+	 * @return
+	 */
+	abstract Adjacency adjacency();
+	
+	/**
+	 * Breadth-first search from _s (CLRS, p. 595) returning only
+	 * distances and parents, so that no adjacency lists are allocated for
+	 * the result. Vertices are discovered in the order of
+	 * breadthFirstSearch(), whose result graph BfsResult.tree() builds on
+	 * demand.
+	 * @param _s vertex from which to search
+	 * @return
+	 */
+	public BfsResult breadthFirstSearchCompact(int _s) {
+		int s = _s - offset;
+		if (s < 0 || v <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		int[] distance = new int[v];
+		int[] parent = new int[v];
+		int[] order = new int[v];
+		BreadthFirstSearch.search(adjacency(), s, distance, parent, order);
+		return new BfsResult(this, s, distance, parent, order);
+	}
+	
+	/**
+	 * Depth-first search of the whole graph (CLRS, p. 604) returning
+	 * times, parents and tree numbers in arrays rather than a result
+	 * graph. Trees are started from vertices in increasing order, as
+	 * in depthFirstSearch().
+	 * @return
+	 */
+	public DfsResult depthFirstSearchCompact() {
+		return depthFirstSearchCompact(null, null);
+	}
+	
+	/**
+	 * Depth-first search in the order of depthFirstSearch(int, int, boolean),
+	 * returning arrays rather than a result graph. The graph is not modified.
+	 * @param orderField Index of data field to be used for ordering
+	 * @param orderMax Maximum value for satellite data field
+	 * @param asc True for sorting vertices using the satellite data
+	 * in ascending order. False for sorting in descending order.
+	 * @return
+	 */
+	public DfsResult depthFirstSearchCompact(int orderField, int orderMax, boolean asc) {
+		int[][] vArr = sortedVertices(orderField, orderMax, asc);
+		return depthFirstSearchCompact(vArr[VERTICES_SORTED], vArr[VERTEX_LOOKUP]);
+	}
+	
+	private DfsResult depthFirstSearchCompact(int[] roots, int[] rank) {
+		int[] discovery = new int[v];
+		int[] finish = new int[v];
+		int[] parent = new int[v];
+		int[] tree = new int[v];
+		int trees = DepthFirstSearch.search(adjacency(), roots, rank, discovery, finish, parent,
+				tree, null);
+		return new DfsResult(this, trees, discovery, finish, parent, tree);
+	}
+	
+	/**
+	 * Direction-optimizing breadth-first search from _s, which switches
+	 * between top-down and bottom-up steps depending on the size of
+	 * the frontier. Gives the same distances as breadthFirstSearch(),
+	 * but only distances and parents are returned, and a vertex with
+	 * several parents at the previous level may be given a different one.
+	 * @param _s vertex from which to search
+	 * @return
+	 */
+	public BfsResult breadthFirstSearchDirectionOptimizing(int _s) {
+		int s = _s - offset;
+		if (s < 0 || v <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		int[] distance = new int[v];
+		int[] parent = new int[v];
+		BreadthFirstSearch.directionOptimizing(adjacency(), s, distance, parent);
+		return new BfsResult(this, s, distance, parent);
+	}
+	
+	/**
+	 * Parallel level-synchronous breadth-first search in the common
+	 * ForkJoinPool, with the default threshold
+	 * @param _s vertex from which to search
+	 * @return
+	 */
+	public BfsResult breadthFirstSearchParallel(int _s) {
+		return breadthFirstSearchParallel(_s, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Parallel level-synchronous breadth-first search.
+	 * Each level of the search is split among tasks in pool, each
+	 * exploring at most threshold vertices of the frontier, and vertices
+	 * are claimed atomically. Distances are those of breadthFirstSearch(),
+	 * but a vertex with several parents at the previous level may be given
+	 * any one of them. The graph must not be modified during the search.
+	 * @param _s vertex from which to search
+	 * @param pool
+	 * @param threshold
+	 * @return
+	 */
+	public BfsResult breadthFirstSearchParallel(int _s, ForkJoinPool pool, int threshold) {
+		int s = _s - offset;
+		if (s < 0 || v <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
+		}
+		int[] distance = new int[v];
+		int[] parent = new int[v];
+		BreadthFirstSearch.parallel(adjacency(), s, distance, parent, pool, threshold);
+		return new BfsResult(this, s, distance, parent);
+	}
+	
+	/**
+	 * A path with the fewest edges from _s to _t, by breadth-first
+	 * searches forward from _s and backward from _t that stop as soon as
+	 * they meet. Only the vertices near such a path are explored, and no
+	 * breadth-first tree is built. On a directed graph the search runs
+	 * over the reverse of the graph, which is built for each call except
+	 * in a CsrGraph.
+	 * @param _s
+	 * @param _t
+	 * @return The vertices of the path, from _s to _t, or an empty array
+	 * if _t cannot be reached from _s
+	 */
+	public int[] breadthFirstPath(int _s, int _t) {
+		int s = _s - offset, t = _t - offset;
+		if (s < 0 || v <= s || t < 0 || v <= t) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return BidirectionalSearch.breadthFirst(adjacency(), offset, s, t);
+	}
+	
+	/**
+	 * Strongly connected components by Tarjan's algorithm, in a single
+	 * iterative depth-first pass using O(V) extra space.
+	 * result[u - offset()] is the component of vertex u. Components are
+	 * numbered from 0 in reverse topological order: every edge between
+	 * different components leads to a lower number.
+	 * For undirected graphs the components are the connected components.
+	 * @return
+	 */
+	public int[] stronglyConnectedComponentsTarjan() {
+		return StronglyConnectedComponents.tarjan(adjacency());
+	}
+	
+	/**
+	 * Strongly connected components and component graph computed
+	 * sequentially by stronglyConnectedComponentsTarjan(), so that
+	 * component numbers are in reverse topological order.
+	 * @return
+	 */
+	public Condensation condensation() {
+		Adjacency adj = adjacency();
+		return new Condensation(this, adj, StronglyConnectedComponents.tarjan(adj));
+	}
+	
+	/**
+	 * Parallel strongly connected components in the common
+	 * ForkJoinPool, with the default threshold
+	 * @return
+	 */
+	public Condensation stronglyConnectedComponentsParallel() {
+		return stronglyConnectedComponentsParallel(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Parallel strongly connected components: vertices that cannot lie on
+	 * a cycle are first trimmed off as components by themselves, and the
+	 * rest are split by forward-backward reachability from pivots, with
+	 * partitions of at most threshold vertices, and those that a split
+	 * barely shrinks, finished by Tarjan's algorithm. The extra space is
+	 * O(V) and tasks are nested O(lg V) deep, whatever the graph.
+	 * Component numbers are not in topological order and
+	 * may differ between runs. The graph must not be modified during
+	 * the computation.
+	 * @param pool
+	 * @param threshold
+	 * @return
+	 */
+	public Condensation stronglyConnectedComponentsParallel(ForkJoinPool pool, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
+		}
+		Adjacency adj = adjacency();
+		return new Condensation(this, adj, StronglyConnectedComponents.parallel(adj, pool, threshold));
+	}
+	
+	/**
+	 * Topological sort by in-degree (Kahn), which also gives the level
+	 * of each vertex in the DAG. Runs in time O(V + E) without recursion.
+	 * Throws an UnsupportedOperationException if the graph is undirected
+	 * and an IllegalStateException if it contains a cycle.
+	 * @return
+	 */
+	public TopologicalOrder topologicalSortKahn() {
+		if (!directed) {
+			throw new UnsupportedOperationException("Topological sort undefined on undirected graphs");
+		}
+		int[] order = new int[v];
+		int[] level = new int[v];
+		if (TopologicalSort.kahn(adjacency(), order, level) < v) {
+			throw new IllegalStateException("Graph contains a cycle");
+		}
+		return new TopologicalOrder(this, order, level);
+	}
+	
+	/**
+	 * Parallel topological sort by in-degree in the common
+	 * ForkJoinPool, with the default threshold
+	 * @return
+	 */
+	public TopologicalOrder topologicalSortParallel() {
+		return topologicalSortParallel(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
 	
+	/**
+	 * Parallel topological sort by in-degree, in which each wavefront
+	 * of vertices with no remaining in-edges is processed by tasks in pool
+	 * of at most threshold vertices. Levels are the same as for
+	 * topologicalSortKahn(), but the order of vertices within a level may
+	 * differ between runs. The graph must not be modified during the sort.
+	 * Throws an UnsupportedOperationException if the graph is undirected
+	 * and an IllegalStateException if it contains a cycle.
+	 * @param pool
+	 * @param threshold
+	 * @return
+	 */
+	public TopologicalOrder topologicalSortParallel(ForkJoinPool pool, int threshold) {
+		if (!directed) {
+			throw new UnsupportedOperationException("Topological sort undefined on undirected graphs");
+		}
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
+		}
+		int[] order = new int[v];
+		int[] level = new int[v];
+		if (TopologicalSort.parallel(adjacency(), order, level, pool, threshold) < v) {
+			throw new IllegalStateException("Graph contains a cycle");
+		}
+		return new TopologicalOrder(this, order, level);
+	}
 }
@@ -0,0 +1,44 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Read-only view of the out-adjacencies of a graph, using internal
+ * vertex numbers (no offset), so that an algorithm can be written once
+ * for every representation.
+ * The adjacencies of u are visited as follows:
+ * for (a = g.firstArc(u); a != NO_ARC; a = g.nextArc(u, a)) {
+ *     v = g.target(u, a);
+ * }
+ * What an arc handle means depends on the representation (index into
+ * an adjacency list, position in a CSR array, column of a matrix),
+ * so handles must only be passed back to the view that produced them.
+ * Undirected edges appear once in each direction.
+ * @author Marshall Farrier
+ *
+ */
+interface Adjacency {
+	int NO_ARC = -1;
+
+	int vertices();
+
+	boolean directed();
+
+	int outDegree(int u);
+
+	int firstArc(int u);
+
+	int nextArc(int u, int arc);
+
+	int target(int u, int arc);
+
+	/**
+	 * View of the in-adjacencies: v is adjacent to u in the result
+	 * iff u is adjacent to v in this view.
+	 * For undirected graphs this is the view itself. For directed graphs
+	 * the reverse may have to be built, which takes time O(V + E).
+	 * @return
+	 */
+	Adjacency reverse();
+}
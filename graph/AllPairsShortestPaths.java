@@ -0,0 +1,125 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Shortest path weights between all pairs of vertices (CLRS, p. 684),
+ * kept in a flat matrix in which the entry for (u, v) is at
+ * u * vertices() + v, together with an optional matrix of next hops:
+ * the vertex following u on a shortest path from u to v.
+ * Vertices are given and returned with the offset of the graph searched.
+ * @author Marshall Farrier
+ *
+ */
+public class AllPairsShortestPaths {
+	private final char offset;
+	private final int vertices;
+	// no offset in either array
+	private final double[] distance;
+	private final int[] next;
+
+	/**
+	 * The arrays are not copied.
+	 * @param g The graph searched
+	 * @param _distance Double.POSITIVE_INFINITY for pairs not connected
+	 * @param _next NIL_VERTEX for pairs not connected, or null if
+	 * next hops were not computed
+	 */
+	AllPairsShortestPaths(AbstractGraph g, double[] _distance, int[] _next) {
+		offset = g.offset();
+		vertices = g.vertices();
+		distance = _distance;
+		next = _next;
+	}
+
+	public int vertices() { return vertices; }
+
+	/**
+	 * Weight of a shortest path from _u to _v,
+	 * or Double.POSITIVE_INFINITY if there is none
+	 * @param _u
+	 * @param _v
+	 * @return
+	 */
+	public double distance(int _u, int _v) {
+		return distance[index(_u, _v)];
+	}
+
+	public boolean reached(int _u, int _v) {
+		return distance[index(_u, _v)] != Double.POSITIVE_INFINITY;
+	}
+
+	public boolean hasNextHops() { return next != null; }
+
+	/**
+	 * The vertex following _u on a shortest path from _u to _v,
+	 * _u itself if _u == _v, or Graph.NIL_VERTEX if there is no path.
+	 * Throws an UnsupportedOperationException if next hops were not computed.
+	 * @param _u
+	 * @param _v
+	 * @return
+	 */
+	public int next(int _u, int _v) {
+		int i = index(_u, _v);
+		if (next == null) {
+			throw new UnsupportedOperationException("Next hops were not computed");
+		}
+		return next[i] == Graph.NIL_VERTEX ? next[i] : next[i] + offset;
+	}
+
+	/**
+	 * The vertices of a shortest path from _u to _v, beginning with _u
+	 * and ending with _v. Empty if there is no path.
+	 * Throws an UnsupportedOperationException if next hops were not computed
+	 * and an IllegalStateException if they do not lead from _u to _v.
+	 * @param _u
+	 * @param _v
+	 * @return
+	 */
+	public int[] path(int _u, int _v) {
+		int i = index(_u, _v);
+		if (next == null) {
+			throw new UnsupportedOperationException("Next hops were not computed");
+		}
+		if (next[i] == Graph.NIL_VERTEX) return new int[0];
+		int u = _u - offset, v = _v - offset;
+		int length = 1, x;
+		for (x = u; x != v; x = next[x * vertices + v]) {
+			if (x == Graph.NIL_VERTEX || ++length > vertices) {
+				throw new IllegalStateException("Next hops contain a cycle");
+			}
+		}
+		int[] result = new int[length];
+		length = 0;
+		for (x = u; x != v; x = next[x * vertices + v]) {
+			result[length++] = x + offset;
+		}
+		result[length] = v + offset;
+		return result;
+	}
+
+	/**
+	 * result[(u - offset) * vertices() + v - offset] is the distance
+	 * from u to v.
+	 * The array is shared with this object and must not be modified.
+	 * @return
+	 */
+	public double[] distanceArray() { return distance; }
+
+	/**
+	 * Next hops laid out as in distanceArray(), without offset,
+	 * or null if they were not computed.
+	 * The array is shared with this object and must not be modified.
+	 * @return
+	 */
+	public int[] nextArray() { return next; }
+
+	private int index(int _u, int _v) {
+		int u = _u - offset, v = _v - offset;
+		if (u < 0 || vertices <= u || v < 0 || vertices <= v) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return u * vertices + v;
+	}
+}
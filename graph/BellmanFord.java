@@ -0,0 +1,267 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bellman-Ford algorithm (CLRS, p. 651) over a WeightedAdjacency view,
+ * shared by the weighted graph representations.
+ * Vertices are internal (no offset).
+ * The single-source searches return a cycle of negative weight if one
+ * can be reached from the source. Such a cycle is taken from the
+ * predecessor subgraph, which has a cycle, always of negative weight,
+ * once relaxation has gone on long enough (Cherkassky and Goldberg,
+ * "Negative-cycle detection algorithms", 1999).
+ * @author Marshall Farrier
+ *
+ */
+final class BellmanFord {
+	private BellmanFord() {}
+
+	/**
+	 * Relaxes all edges of g in passes over the vertices until a pass
+	 * changes no distance, which takes at most g.vertices() - 1 passes
+	 * unless a cycle of negative weight can be reached from a vertex of
+	 * finite distance. Distances lowered in a pass are used again within
+	 * the same pass, which often saves passes.
+	 * @param g
+	 * @param distance Initial distances, Double.POSITIVE_INFINITY for
+	 * vertices not yet reached. Replaced by the shortest path weights.
+	 * @param parent Filled in with the predecessors of the vertices whose
+	 * distance was lowered, and otherwise left as it is. May be null.
+	 * @return false iff a cycle of negative weight was found, in which
+	 * case the distances are not final
+	 */
+	static boolean relaxAll(WeightedAdjacency g, double[] distance, int[] parent) {
+		final int VERTICES = g.vertices();
+		for (int pass = 0; relaxPass(g, distance, parent); ++pass) {
+			// without a negative cycle, at most VERTICES - 1 passes change a distance
+			if (pass == VERTICES - 1) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Shortest paths from s by passes over all edges, stopping early
+	 * once a pass changes no distance
+	 * @param g
+	 * @param s
+	 * @param distance Filled in by the search, length g.vertices()
+	 * @param parent Filled in by the search, length g.vertices()
+	 * @return The vertices of a cycle of negative weight, in the order
+	 * of its edges, or null if there is none
+	 */
+	static int[] search(WeightedAdjacency g, int s, double[] distance, int[] parent) {
+		initialize(s, distance, parent);
+		return relaxAll(g, distance, parent) ? null : negativeCycle(g, distance, parent);
+	}
+
+	/**
+	 * Shortest paths from s by the queue-based variant known as SPFA:
+	 * only the edges out of vertices whose distance has been lowered are
+	 * relaxed, in FIFO order, which usually relaxes far fewer edges than
+	 * full passes. A path of g.vertices() edges in the predecessor
+	 * subgraph shows a negative cycle.
+	 * @param g
+	 * @param s
+	 * @param distance Filled in by the search, length g.vertices()
+	 * @param parent Filled in by the search, length g.vertices()
+	 * @return The vertices of a cycle of negative weight, in the order
+	 * of its edges, or null if there is none
+	 */
+	static int[] spfa(WeightedAdjacency g, int s, double[] distance, int[] parent) {
+		final int VERTICES = g.vertices();
+		initialize(s, distance, parent);
+		// each vertex is in the queue at most once, so a circular buffer of VERTICES suffices
+		int[] queue = new int[VERTICES];
+		boolean[] queued = new boolean[VERTICES];
+		// number of edges on the path to each vertex
+		int[] length = new int[VERTICES];
+		int head = 0, size = 1, u, v, a;
+		double d;
+		queue[0] = s;
+		queued[s] = true;
+		while (size > 0) {
+			u = queue[head];
+			head = head + 1 == VERTICES ? 0 : head + 1;
+			--size;
+			queued[u] = false;
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				v = g.target(u, a);
+				d = distance[u] + g.weight(u, a);
+				if (d < distance[v]) {
+					distance[v] = d;
+					parent[v] = u;
+					length[v] = length[u] + 1;
+					if (length[v] >= VERTICES) return negativeCycle(g, distance, parent);
+					if (!queued[v]) {
+						queue[(head + size) % VERTICES] = v;
+						queued[v] = true;
+						++size;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Shortest paths from s by passes in which every vertex takes the
+	 * lowest of its distance and the distances of its predecessors in
+	 * the previous pass plus the weights of the edges from them.
+	 * Each pass reads the edges into vertices through the reverse of g
+	 * and is split among tasks in pool, each taking at most threshold
+	 * vertices and writing only their distances, so no locking is needed.
+	 * @param g Must not be modified during the search
+	 * @param s
+	 * @param distance Filled in by the search, length g.vertices()
+	 * @param parent Filled in by the search, length g.vertices()
+	 * @param pool
+	 * @param threshold
+	 * @return The vertices of a cycle of negative weight, in the order
+	 * of its edges, or null if there is none
+	 */
+	static int[] parallel(WeightedAdjacency g, int s, double[] distance, int[] parent,
+			ForkJoinPool pool, int threshold) {
+		final int VERTICES = g.vertices();
+		initialize(s, distance, parent);
+		WeightedAdjacency reverse = g.reverse();
+		double[] next = distance.clone();
+		AtomicBoolean changed = new AtomicBoolean(true);
+		for (int pass = 0; changed.get(); ++pass) {
+			// as for relaxAll(), but a pass uses no distance lowered in the same pass
+			if (pass == VERTICES) return negativeCycle(g, distance, parent);
+			changed.set(false);
+			pool.invoke(new Pull(reverse, distance, next, parent, 0, VERTICES, changed, threshold));
+			System.arraycopy(next, 0, distance, 0, VERTICES);
+		}
+		return null;
+	}
+
+	private static void initialize(int s, double[] distance, int[] parent) {
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		Arrays.fill(parent, Graph.NIL_VERTEX);
+		distance[s] = 0.0;
+	}
+
+	// one pass over all edges; returns true iff some distance was lowered
+	private static boolean relaxPass(WeightedAdjacency g, double[] distance, int[] parent) {
+		final int VERTICES = g.vertices();
+		boolean changed = false;
+		int u, v, a;
+		double d;
+		for (u = 0; u < VERTICES; ++u) {
+			if (distance[u] == Double.POSITIVE_INFINITY) continue;
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				v = g.target(u, a);
+				d = distance[u] + g.weight(u, a);
+				// Relax (CLRS, p. 649)
+				if (d < distance[v]) {
+					distance[v] = d;
+					if (parent != null) parent[v] = u;
+					changed = true;
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Called once a negative cycle has been detected. Relaxes further
+	 * passes as needed until the predecessor subgraph has a cycle.
+	 * @return The cycle, in the order of its edges
+	 */
+	private static int[] negativeCycle(WeightedAdjacency g, double[] distance, int[] parent) {
+		int[] cycle;
+		while ((cycle = parentCycle(parent)) == null) {
+			relaxPass(g, distance, parent);
+		}
+		return cycle;
+	}
+
+	// a cycle of the predecessor subgraph, or null if it has none
+	private static int[] parentCycle(int[] parent) {
+		final int VERTICES = parent.length;
+		// the vertex from which each vertex was first seen
+		int[] seenFrom = new int[VERTICES];
+		Arrays.fill(seenFrom, -1);
+		int u, v, length;
+		for (u = 0; u < VERTICES; ++u) {
+			for (v = u; v != Graph.NIL_VERTEX && seenFrom[v] == -1; v = parent[v]) {
+				seenFrom[v] = u;
+			}
+			if (v == Graph.NIL_VERTEX || seenFrom[v] != u) continue;
+			// the walk from u has come back to v
+			length = 1;
+			for (u = parent[v]; u != v; u = parent[u]) {
+				++length;
+			}
+			int[] result = new int[length];
+			result[--length] = v;
+			for (u = parent[v]; u != v; u = parent[u]) {
+				result[--length] = u;
+			}
+			return result;
+		}
+		return null;
+	}
+
+	/**
+	 * Lowers the distances of vertices lo through hi - 1 into next,
+	 * reading only the distances of the previous pass
+	 */
+	private static class Pull extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final WeightedAdjacency reverse;
+		private final double[] distance;
+		private final double[] next;
+		private final int[] parent;
+		private final int lo;
+		private final int hi;
+		private final AtomicBoolean changed;
+		private final int threshold;
+
+		Pull(WeightedAdjacency _reverse, double[] _distance, double[] _next, int[] _parent,
+				int _lo, int _hi, AtomicBoolean _changed, int _threshold) {
+			reverse = _reverse;
+			distance = _distance;
+			next = _next;
+			parent = _parent;
+			lo = _lo;
+			hi = _hi;
+			changed = _changed;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Pull(reverse, distance, next, parent, lo, mid, changed, threshold),
+						new Pull(reverse, distance, next, parent, mid, hi, changed, threshold));
+				return;
+			}
+			boolean lowered = false;
+			int v, u, a;
+			double d;
+			for (v = lo; v < hi; ++v) {
+				for (a = reverse.firstArc(v); a != Adjacency.NO_ARC; a = reverse.nextArc(v, a)) {
+					u = reverse.target(v, a);
+					if (distance[u] == Double.POSITIVE_INFINITY) continue;
+					d = distance[u] + reverse.weight(v, a);
+					if (d < next[v]) {
+						next[v] = d;
+						parent[v] = u;
+						lowered = true;
+					}
+				}
+			}
+			if (lowered) changed.set(true);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Distances and parents from a breadth-first search, without
+ * the result graph built by breadthFirstSearch(), which tree() builds
+ * only when asked. This takes O(V) ints in all, against a LinkedList
+ * per vertex for the result graph.
+ * Vertices are given and returned with the offset of the graph searched.
+ * @author Marshall Farrier
+ *
+ */
+public class BfsResult {
+	private final char offset;
+	private final int source;
+	// no offset in either array
+	private final int[] distance;
+	private final int[] parent;
+	// vertices reached in order of discovery, or null if not known
+	private final int[] order;
+	// built on first call to tree()
+	private LinkedListGraph tree;
+
+	/**
+	 * The arrays are not copied.
+	 * @param g The graph searched
+	 * @param s Source vertex (no offset)
+	 * @param _distance -1 for vertices not reached
+	 * @param _parent NIL_VERTEX for the source and vertices not reached
+	 */
+	BfsResult(AbstractGraph g, int s, int[] _distance, int[] _parent) {
+		this(g, s, _distance, _parent, null);
+	}
+
+	/**
+	 * The arrays are not copied.
+	 * @param g The graph searched
+	 * @param s Source vertex (no offset)
+	 * @param _distance
+	 * @param _parent
+	 * @param _order The vertices reached (no offset) in order of discovery,
+	 * followed by anything, or null
+	 */
+	BfsResult(AbstractGraph g, int s, int[] _distance, int[] _parent, int[] _order) {
+		offset = g.offset();
+		source = s;
+		distance = _distance;
+		parent = _parent;
+		order = _order;
+	}
+
+	public int vertices() { return distance.length; }
+
+	public int source() { return source + offset; }
+
+	/**
+	 * Number of edges on a shortest path from the source,
+	 * or -1 if _v was not reached
+	 * @param _v
+	 * @return
+	 */
+	public int distance(int _v) {
+		return distance[vertex(_v)];
+	}
+
+	public boolean reached(int _v) {
+		return distance[vertex(_v)] >= 0;
+	}
+
+	/**
+	 * Returns Graph.NIL_VERTEX for the source and for vertices not reached
+	 * @param _v
+	 * @return
+	 */
+	public int parent(int _v) {
+		int p = parent[vertex(_v)];
+		return p == Graph.NIL_VERTEX ? p : p + offset;
+	}
+
+	/**
+	 * The vertices of a shortest path from the source to _v, beginning
+	 * with the source and ending with _v, found by following parents.
+	 * Empty if _v was not reached. Unlike printPath(), nothing is printed.
+	 * @param _v
+	 * @return
+	 */
+	public int[] pathTo(int _v) {
+		int v = vertex(_v);
+		if (distance[v] < 0) return new int[0];
+		int length = distance[v] + 1;
+		int[] result = new int[length];
+		for (int u = v; length > 0; u = parent[u]) {
+			result[--length] = u + offset;
+		}
+		return result;
+	}
+
+	/**
+	 * The breadth-first tree as the result graph of breadthFirstSearch(),
+	 * with the data fields COLOR, DISTANCE and PARENT, built on the first
+	 * call. The same graph is returned on later calls, so it should not
+	 * be modified. For a result of breadthFirstSearchCompact() the graph is
+	 * the one breadthFirstSearch() returns; otherwise the tree edges are
+	 * inserted level by level, so adjacency lists may be in another order.
+	 * @return
+	 */
+	public synchronized LinkedListGraph tree() {
+		if (tree == null) {
+			tree = BreadthFirstSearch.tree(offset, distance, parent, order);
+		}
+		return tree;
+	}
+
+	private int vertex(int _v) {
+		int v = _v - offset;
+		if (v < 0 || distance.length <= v) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return v;
+	}
+}
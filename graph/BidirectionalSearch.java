@@ -0,0 +1,187 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Point-to-point searches that run forward from the source and backward
+ * from the target at the same time, over an Adjacency view and its
+ * reverse, and stop as soon as the two searches have met on a shortest
+ * path. Each search covers a ball of about half the radius of a search
+ * from the source alone. Vertices are internal (no offset), but the
+ * paths returned have the offset of the graph added.
+ * @author Marshall Farrier
+ *
+ */
+final class BidirectionalSearch {
+	// parent of a vertex not yet seen by one of the searches
+	private static final int UNSEEN = Integer.MIN_VALUE;
+
+	private BidirectionalSearch() {}
+
+	/**
+	 * A path from s to t with the fewest edges. Whole levels are expanded
+	 * at a time, always on the side whose frontier is smaller, and the
+	 * first vertex found by both searches lies on such a path.
+	 * @param g
+	 * @param offset
+	 * @param s
+	 * @param t
+	 * @return The vertices of the path, beginning with s and ending with t,
+	 * or an empty array if t cannot be reached from s
+	 */
+	static int[] breadthFirst(Adjacency g, char offset, int s, int t) {
+		if (s == t) return new int[] {s + offset};
+		final int VERTICES = g.vertices();
+		Adjacency reverse = g.reverse();
+		// forwardParent[v] precedes v on a path from s; backwardParent[v] follows it on one to t
+		int[] forwardParent = new int[VERTICES];
+		int[] backwardParent = new int[VERTICES];
+		Arrays.fill(forwardParent, UNSEEN);
+		Arrays.fill(backwardParent, UNSEEN);
+		forwardParent[s] = Graph.NIL_VERTEX;
+		backwardParent[t] = Graph.NIL_VERTEX;
+		int[] forwardQueue = new int[VERTICES];
+		int[] backwardQueue = new int[VERTICES];
+		int forwardHead = 0, forwardTail = 1, backwardHead = 0, backwardTail = 1, end, u, v, a;
+		forwardQueue[0] = s;
+		backwardQueue[0] = t;
+		while (forwardHead < forwardTail && backwardHead < backwardTail) {
+			if (forwardTail - forwardHead <= backwardTail - backwardHead) {
+				for (end = forwardTail; forwardHead < end; ++forwardHead) {
+					u = forwardQueue[forwardHead];
+					for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+						v = g.target(u, a);
+						if (forwardParent[v] != UNSEEN) continue;
+						forwardParent[v] = u;
+						if (backwardParent[v] != UNSEEN) return join(offset, v, backwardParent[v], forwardParent, backwardParent);
+						forwardQueue[forwardTail++] = v;
+					}
+				}
+			}
+			else {
+				for (end = backwardTail; backwardHead < end; ++backwardHead) {
+					u = backwardQueue[backwardHead];
+					for (a = reverse.firstArc(u); a != Adjacency.NO_ARC; a = reverse.nextArc(u, a)) {
+						v = reverse.target(u, a);
+						if (backwardParent[v] != UNSEEN) continue;
+						backwardParent[v] = u;
+						if (forwardParent[v] != UNSEEN) return join(offset, forwardParent[v], v, forwardParent, backwardParent);
+						backwardQueue[backwardTail++] = v;
+					}
+				}
+			}
+		}
+		return new int[0];
+	}
+
+	/**
+	 * A shortest path from s to t by Dijkstra's algorithm in both
+	 * directions, settling the next vertex on the side whose queue is
+	 * smaller, which keeps the two searches balanced. Every edge
+	 * relaxed that leads to a vertex seen by the other search closes a
+	 * path from s to t, and the search stops once the sum of the least
+	 * keys in the two queues is no less than the lightest such path.
+	 * Throws an IllegalArgumentException on reaching an edge
+	 * of negative weight.
+	 * @param g
+	 * @param offset
+	 * @param s
+	 * @param t
+	 * @return The vertices of the path, beginning with s and ending with t,
+	 * or an empty array if t cannot be reached from s
+	 */
+	static int[] dijkstra(WeightedAdjacency g, char offset, int s, int t) {
+		if (s == t) return new int[] {s + offset};
+		final int VERTICES = g.vertices();
+		WeightedAdjacency reverse = g.reverse();
+		double[] forward = new double[VERTICES];
+		double[] backward = new double[VERTICES];
+		int[] forwardParent = new int[VERTICES];
+		int[] backwardParent = new int[VERTICES];
+		Arrays.fill(forward, Double.POSITIVE_INFINITY);
+		Arrays.fill(backward, Double.POSITIVE_INFINITY);
+		forward[s] = 0.0;
+		backward[t] = 0.0;
+		forwardParent[s] = Graph.NIL_VERTEX;
+		backwardParent[t] = Graph.NIL_VERTEX;
+		IndexedMinHeap forwardQueue = new IndexedMinHeap(VERTICES);
+		IndexedMinHeap backwardQueue = new IndexedMinHeap(VERTICES);
+		forwardQueue.insert(s, 0.0);
+		backwardQueue.insert(t, 0.0);
+		// the lightest path found is the path to meetFrom, an edge, then the path from meetTo
+		double best = Double.POSITIVE_INFINITY;
+		int meetFrom = Graph.NIL_VERTEX, meetTo = Graph.NIL_VERTEX, u, v, a;
+		double w, d;
+		while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()
+				&& forwardQueue.priority(forwardQueue.peek())
+				+ backwardQueue.priority(backwardQueue.peek()) < best) {
+			if (forwardQueue.size() <= backwardQueue.size()) {
+				u = forwardQueue.poll();
+				for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+					w = g.weight(u, a);
+					if (w < 0.0) {
+						throw new IllegalArgumentException("Negative edge weight");
+					}
+					v = g.target(u, a);
+					d = forward[u] + w;
+					if (d < forward[v]) {
+						forward[v] = d;
+						forwardParent[v] = u;
+						forwardQueue.offer(v, d);
+					}
+					if (d + backward[v] < best) {
+						best = d + backward[v];
+						meetFrom = u;
+						meetTo = v;
+					}
+				}
+			}
+			else {
+				u = backwardQueue.poll();
+				for (a = reverse.firstArc(u); a != Adjacency.NO_ARC; a = reverse.nextArc(u, a)) {
+					w = reverse.weight(u, a);
+					if (w < 0.0) {
+						throw new IllegalArgumentException("Negative edge weight");
+					}
+					v = reverse.target(u, a);
+					d = backward[u] + w;
+					if (d < backward[v]) {
+						backward[v] = d;
+						backwardParent[v] = u;
+						backwardQueue.offer(v, d);
+					}
+					if (d + forward[v] < best) {
+						best = d + forward[v];
+						meetFrom = v;
+						meetTo = u;
+					}
+				}
+			}
+		}
+		if (best == Double.POSITIVE_INFINITY) return new int[0];
+		return join(offset, meetFrom, meetTo, forwardParent, backwardParent);
+	}
+
+	// the path from s to u given by forwardParent followed by that from v to t
+	private static int[] join(char offset, int u, int v, int[] forwardParent, int[] backwardParent) {
+		int before = 0, length, x, i;
+		for (x = u; x != Graph.NIL_VERTEX; x = forwardParent[x]) {
+			++before;
+		}
+		length = before;
+		for (x = v; x != Graph.NIL_VERTEX; x = backwardParent[x]) {
+			++length;
+		}
+		int[] result = new int[length];
+		for (x = u, i = before; x != Graph.NIL_VERTEX; x = forwardParent[x]) {
+			result[--i] = x + offset;
+		}
+		for (x = v, i = before; x != Graph.NIL_VERTEX; x = backwardParent[x]) {
+			result[i++] = x + offset;
+		}
+		return result;
+	}
+}
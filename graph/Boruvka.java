@@ -0,0 +1,304 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Parallel minimum spanning forest by Boruvka's algorithm (CLRS,
+ * problem 23-2) over EdgeArrays, edges being taken as undirected.
+ * Each round finds the lightest edge leaving every component, adds
+ * them all to the forest and merges the components they join, so the
+ * number of components at least halves and there are at most lg V
+ * rounds. Edges are compared by weight and then by position, so that
+ * the lightest edges are unique and form no cycle; the forest is then
+ * the one Kruskal's algorithm gives with a stable sort.
+ * Within a round, edges are examined in parallel, the lightest edge of
+ * each component being kept by compare-and-set, and components are
+ * merged in parallel with a lock-free union-find on an
+ * AtomicIntegerArray. Edges inside a component are dropped after each
+ * round. Vertices are internal (no offset).
+ * @author Marshall Farrier
+ *
+ */
+final class Boruvka {
+	// no edge leaving the component found yet
+	private static final int NONE = -1;
+
+	private Boruvka() {}
+
+	/**
+	 * Minimum spanning forest of the graph with the given edges
+	 * @param vertices
+	 * @param edges Must not be modified during the search
+	 * @param pool
+	 * @param threshold Most edges or vertices handled by one task
+	 * @return Positions in edges of the edges of the forest, in ascending order
+	 */
+	static int[] search(int vertices, EdgeArrays edges, ForkJoinPool pool, int threshold) {
+		AtomicIntegerArray parent = new AtomicIntegerArray(vertices);
+		// component[v] is the root of v as of the end of the last round
+		int[] component = new int[vertices];
+		AtomicIntegerArray lightest = new AtomicIntegerArray(vertices);
+		int v;
+		for (v = 0; v < vertices; ++v) {
+			parent.set(v, v);
+			component[v] = v;
+			lightest.set(v, NONE);
+		}
+		// edges between different components, compacted into the other array after each round
+		int[] active = new int[edges.size()], next = new int[edges.size()], swap;
+		int size = edges.size();
+		for (int e = 0; e < size; ++e) {
+			active[e] = e;
+		}
+		// a forest on V vertices has fewer than V edges
+		int[] tree = new int[Math.max(vertices - 1, 0)];
+		AtomicInteger treeSize = new AtomicInteger(), tail = new AtomicInteger();
+		while (size > 0) {
+			pool.invoke(new Lightest(edges, component, lightest, active, 0, size, threshold));
+			pool.invoke(new Join(edges, parent, component, lightest, tree, treeSize, 0, vertices,
+					threshold));
+			pool.invoke(new Compress(parent, component, lightest, 0, vertices, threshold));
+			tail.set(0);
+			pool.invoke(new Filter(edges, component, active, next, tail, 0, size, threshold));
+			size = tail.get();
+			swap = active;
+			active = next;
+			next = swap;
+		}
+		int[] result = Arrays.copyOf(tree, treeSize.get());
+		Arrays.sort(result);
+		return result;
+	}
+
+	// true iff edge e is lighter than edge f, ties going to the lower position
+	private static boolean lighter(double[] weight, int e, int f) {
+		return weight[e] < weight[f] || (weight[e] == weight[f] && e < f);
+	}
+
+	// lowers lightest[c] to e if e is lighter than the edge there
+	private static void offer(AtomicIntegerArray lightest, double[] weight, int c, int e) {
+		int current;
+		do {
+			current = lightest.get(c);
+			if (current != NONE && !lighter(weight, e, current)) return;
+		} while (!lightest.compareAndSet(c, current, e));
+	}
+
+	// root of x, halving the path to it on the way
+	private static int find(AtomicIntegerArray parent, int x) {
+		int p, grandparent;
+		while ((p = parent.get(x)) != x) {
+			grandparent = parent.get(p);
+			if (grandparent != p) parent.compareAndSet(x, p, grandparent);
+			x = p;
+		}
+		return x;
+	}
+
+	/**
+	 * Merges the sets of x and y unless they are the same. The higher root
+	 * is always linked below the lower, so concurrent unions form no cycle.
+	 * @return true iff the sets were merged by this call
+	 */
+	private static boolean union(AtomicIntegerArray parent, int x, int y) {
+		int swap;
+		while (true) {
+			x = find(parent, x);
+			y = find(parent, y);
+			if (x == y) return false;
+			if (x < y) {
+				swap = x;
+				x = y;
+				y = swap;
+			}
+			if (parent.compareAndSet(x, x, y)) return true;
+		}
+	}
+
+	/**
+	 * Finds the lightest edge leaving each component among active[lo]
+	 * through active[hi - 1]
+	 */
+	private static class Lightest extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final EdgeArrays edges;
+		private final int[] component;
+		private final AtomicIntegerArray lightest;
+		private final int[] active;
+		private final int lo;
+		private final int hi;
+		private final int threshold;
+
+		Lightest(EdgeArrays _edges, int[] _component, AtomicIntegerArray _lightest, int[] _active,
+				int _lo, int _hi, int _threshold) {
+			edges = _edges;
+			component = _component;
+			lightest = _lightest;
+			active = _active;
+			lo = _lo;
+			hi = _hi;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Lightest(edges, component, lightest, active, lo, mid, threshold),
+						new Lightest(edges, component, lightest, active, mid, hi, threshold));
+				return;
+			}
+			int i, e, cu, cv;
+			for (i = lo; i < hi; ++i) {
+				e = active[i];
+				cu = component[edges.from[e]];
+				cv = component[edges.to[e]];
+				if (cu == cv) continue;
+				offer(lightest, edges.weight, cu, e);
+				offer(lightest, edges.weight, cv, e);
+			}
+		}
+	}
+
+	/**
+	 * Merges each component among vertices lo through hi - 1 along its
+	 * lightest edge, adding the edge to the tree if no other component
+	 * has already merged along it
+	 */
+	private static class Join extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final EdgeArrays edges;
+		private final AtomicIntegerArray parent;
+		private final int[] component;
+		private final AtomicIntegerArray lightest;
+		private final int[] tree;
+		private final AtomicInteger treeSize;
+		private final int lo;
+		private final int hi;
+		private final int threshold;
+
+		Join(EdgeArrays _edges, AtomicIntegerArray _parent, int[] _component,
+				AtomicIntegerArray _lightest, int[] _tree, AtomicInteger _treeSize,
+				int _lo, int _hi, int _threshold) {
+			edges = _edges;
+			parent = _parent;
+			component = _component;
+			lightest = _lightest;
+			tree = _tree;
+			treeSize = _treeSize;
+			lo = _lo;
+			hi = _hi;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Join(edges, parent, component, lightest, tree, treeSize, lo, mid,
+								threshold),
+						new Join(edges, parent, component, lightest, tree, treeSize, mid, hi,
+								threshold));
+				return;
+			}
+			IntBuffer joined = new IntBuffer(0);
+			int v, e;
+			for (v = lo; v < hi; ++v) {
+				if (component[v] != v || (e = lightest.get(v)) == NONE) continue;
+				// two components may share a lightest edge, but only one merge along it succeeds
+				if (union(parent, edges.from[e], edges.to[e])) joined.add(e);
+			}
+			joined.copyTo(tree, treeSize);
+		}
+	}
+
+	/**
+	 * Points vertices lo through hi - 1 at the roots of their sets and
+	 * clears their lightest edges for the next round
+	 */
+	private static class Compress extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final AtomicIntegerArray parent;
+		private final int[] component;
+		private final AtomicIntegerArray lightest;
+		private final int lo;
+		private final int hi;
+		private final int threshold;
+
+		Compress(AtomicIntegerArray _parent, int[] _component, AtomicIntegerArray _lightest,
+				int _lo, int _hi, int _threshold) {
+			parent = _parent;
+			component = _component;
+			lightest = _lightest;
+			lo = _lo;
+			hi = _hi;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Compress(parent, component, lightest, lo, mid, threshold),
+						new Compress(parent, component, lightest, mid, hi, threshold));
+				return;
+			}
+			for (int v = lo; v < hi; ++v) {
+				component[v] = find(parent, v);
+				lightest.set(v, NONE);
+			}
+		}
+	}
+
+	/**
+	 * Copies the edges among active[lo] through active[hi - 1] that join
+	 * different components to next, at positions reserved through tail
+	 */
+	private static class Filter extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final EdgeArrays edges;
+		private final int[] component;
+		private final int[] active;
+		private final int[] next;
+		private final AtomicInteger tail;
+		private final int lo;
+		private final int hi;
+		private final int threshold;
+
+		Filter(EdgeArrays _edges, int[] _component, int[] _active, int[] _next,
+				AtomicInteger _tail, int _lo, int _hi, int _threshold) {
+			edges = _edges;
+			component = _component;
+			active = _active;
+			next = _next;
+			tail = _tail;
+			lo = _lo;
+			hi = _hi;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Filter(edges, component, active, next, tail, lo, mid, threshold),
+						new Filter(edges, component, active, next, tail, mid, hi, threshold));
+				return;
+			}
+			IntBuffer kept = new IntBuffer(hi - lo);
+			int i, e;
+			for (i = lo; i < hi; ++i) {
+				e = active[i];
+				if (component[edges.from[e]] != component[edges.to[e]]) kept.add(e);
+			}
+			kept.copyTo(next, tail);
+		}
+	}
+}
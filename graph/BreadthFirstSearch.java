@@ -0,0 +1,338 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Breadth-first searches over an Adjacency view, shared by the
+ * graph representations. Vertices are internal (no offset).
+ * Distances are -1 and parents Graph.NIL_VERTEX for vertices not reached.
+ * @author Marshall Farrier
+ *
+ */
+final class BreadthFirstSearch {
+	/**
+	 * Thresholds for switching direction (Beamer, Asanovic and Patterson,
+	 * "Direction-Optimizing Breadth-First Search", 2012):
+	 * go bottom-up once the edges out of the frontier exceed 1 / ALPHA
+	 * of the edges out of unvisited vertices, and back to top-down once
+	 * the frontier is shrinking and has fewer than 1 / BETA of the vertices.
+	 */
+	private static final int ALPHA = 14;
+	private static final int BETA = 24;
+	private static final int WORD_BITS = 64;
+	private static final int LOG_WORD_BITS = 6;
+
+	private BreadthFirstSearch() {}
+
+	/**
+	 * Top-down BFS from s (CLRS, p. 595), the queue being a single array
+	 * since each vertex is enqueued at most once. Vertices are discovered
+	 * in the same order as by the breadthFirstSearch() methods, so the
+	 * parents are theirs too.
+	 * @param g
+	 * @param s
+	 * @param distance Filled in by the search, length g.vertices()
+	 * @param parent Filled in by the search, length g.vertices()
+	 * @param order Filled in with the vertices reached, in order of
+	 * discovery, length g.vertices()
+	 * @return Number of vertices reached
+	 */
+	static int search(Adjacency g, int s, int[] distance, int[] parent, int[] order) {
+		Arrays.fill(distance, -1);
+		Arrays.fill(parent, Graph.NIL_VERTEX);
+		int head = 0, tail = 0, u, v, a, dist;
+		distance[s] = 0;
+		order[tail++] = s;
+		while (head < tail) {
+			u = order[head++];
+			dist = distance[u] + 1;
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				v = g.target(u, a);
+				if (distance[v] < 0) {
+					distance[v] = dist;
+					parent[v] = u;
+					order[tail++] = v;
+				}
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Direction-optimizing BFS from s.
+	 * Top-down steps scan the out-adjacencies of the frontier, as in
+	 * CLRS, p. 595. Bottom-up steps instead scan the in-adjacencies of each
+	 * unvisited vertex and stop at the first one found in the frontier,
+	 * which is held as a bitmap. On graphs of low diameter most of the
+	 * edges into the large middle levels are then never examined.
+	 * Distances are the same as for a top-down search, but where a vertex
+	 * has several parents at the previous level, the one chosen may differ.
+	 * @param g
+	 * @param s
+	 * @param distance Filled in by the search, length g.vertices()
+	 * @param parent Filled in by the search, length g.vertices()
+	 */
+	static void directionOptimizing(Adjacency g, int s, int[] distance, int[] parent) {
+		final int VERTICES = g.vertices();
+		final int WORDS = (VERTICES + WORD_BITS - 1) >>> LOG_WORD_BITS;
+		int i, u, v, a, level = 0, size, prevSize;
+		// out-arcs of vertices not yet visited
+		long unexplored = 0;
+		for (u = 0; u < VERTICES; ++u) {
+			distance[u] = -1;
+			parent[u] = Graph.NIL_VERTEX;
+			unexplored += g.outDegree(u);
+		}
+		// frontier as a list for top-down steps
+		int[] frontier = new int[VERTICES];
+		int[] next = new int[VERTICES];
+		int[] tmp;
+		// frontier as a bitmap for bottom-up steps, allocated when first needed
+		long[] frontierBits = null, nextBits = null, tmpBits;
+		Adjacency in = null;
+
+		distance[s] = 0;
+		frontier[0] = s;
+		size = 1;
+		// out-arcs of the frontier
+		long scout = g.outDegree(s);
+		unexplored -= scout;
+
+		while (size > 0) {
+			if (scout > unexplored / ALPHA) {
+				if (frontierBits == null) {
+					frontierBits = new long[WORDS];
+					nextBits = new long[WORDS];
+					in = g.reverse();
+				}
+				for (i = 0; i < size; ++i) {
+					frontierBits[frontier[i] >>> LOG_WORD_BITS] |= 1L << frontier[i];
+				}
+				do {
+					prevSize = size;
+					++level;
+					size = 0;
+					for (v = 0; v < VERTICES; ++v) {
+						if (distance[v] >= 0) continue;
+						for (a = in.firstArc(v); a != Adjacency.NO_ARC; a = in.nextArc(v, a)) {
+							u = in.target(v, a);
+							if ((frontierBits[u >>> LOG_WORD_BITS] & (1L << u)) != 0) {
+								distance[v] = level;
+								parent[v] = u;
+								nextBits[v >>> LOG_WORD_BITS] |= 1L << v;
+								unexplored -= g.outDegree(v);
+								++size;
+								break;
+							}
+						}
+					}
+					tmpBits = frontierBits;
+					frontierBits = nextBits;
+					nextBits = tmpBits;
+					for (i = 0; i < WORDS; ++i) {
+						nextBits[i] = 0;
+					}
+				} while (size >= prevSize || size > VERTICES / BETA);
+				// back to a list, clearing the bitmap for later use
+				size = 0;
+				scout = 0;
+				long word;
+				for (i = 0; i < WORDS; ++i) {
+					word = frontierBits[i];
+					frontierBits[i] = 0;
+					while (word != 0) {
+						v = (i << LOG_WORD_BITS) + Long.numberOfTrailingZeros(word);
+						word &= word - 1;
+						frontier[size++] = v;
+						scout += g.outDegree(v);
+					}
+				}
+			}
+			else {
+				++level;
+				prevSize = size;
+				size = 0;
+				scout = 0;
+				for (i = 0; i < prevSize; ++i) {
+					u = frontier[i];
+					for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+						v = g.target(u, a);
+						if (distance[v] < 0) {
+							distance[v] = level;
+							parent[v] = u;
+							next[size++] = v;
+							scout += g.outDegree(v);
+						}
+					}
+				}
+				unexplored -= scout;
+				tmp = frontier;
+				frontier = next;
+				next = tmp;
+			}
+		}
+	}
+
+	/**
+	 * Level-synchronous parallel BFS from s.
+	 * Each level is expanded by a tree of ExpandLevel tasks in pool,
+	 * splitting the frontier until a piece has at most threshold vertices.
+	 * A vertex is claimed by whichever task first sets its distance
+	 * with compareAndSet, and that task alone writes its parent, so parents
+	 * may differ from run to run, but distances are always those of
+	 * a sequential search.
+	 * @param g Must not be modified during the search
+	 * @param s
+	 * @param distance Filled in by the search, length g.vertices()
+	 * @param parent Filled in by the search, length g.vertices()
+	 * @param pool
+	 * @param threshold
+	 */
+	static void parallel(Adjacency g, int s, int[] distance, int[] parent,
+			ForkJoinPool pool, int threshold) {
+		final int VERTICES = g.vertices();
+		AtomicIntegerArray dist = new AtomicIntegerArray(VERTICES);
+		int i, size, level = 0;
+		for (i = 0; i < VERTICES; ++i) {
+			dist.set(i, -1);
+			parent[i] = Graph.NIL_VERTEX;
+		}
+		int[] frontier = new int[VERTICES];
+		int[] next = new int[VERTICES];
+		int[] tmp;
+		AtomicInteger tail = new AtomicInteger();
+
+		dist.set(s, 0);
+		frontier[0] = s;
+		size = 1;
+		while (size > 0) {
+			tail.set(0);
+			pool.invoke(new ExpandLevel(g, dist, parent, ++level, frontier, 0, size,
+					next, tail, threshold));
+			size = tail.get();
+			tmp = frontier;
+			frontier = next;
+			next = tmp;
+		}
+		for (i = 0; i < VERTICES; ++i) {
+			distance[i] = dist.get(i);
+		}
+	}
+
+	/**
+	 * The result graph of the breadthFirstSearch() methods, built from
+	 * the arrays of a search: an undirected LinkedListGraph holding the
+	 * edges of the breadth-first tree, with the data fields COLOR, which is
+	 * BLACK for the vertices reached and WHITE for the others, DISTANCE
+	 * and PARENT
+	 * @param offset Offset of the graph searched
+	 * @param distance
+	 * @param parent
+	 * @param order The vertices reached, in order of discovery, in which
+	 * the tree edges are inserted, or null to insert them level by level
+	 * in order of vertex
+	 * @return
+	 */
+	static LinkedListGraph tree(char offset, int[] distance, int[] parent, int[] order) {
+		final int VERTICES = distance.length;
+		LinkedListGraph result = new LinkedListGraph(VERTICES, false, offset, 3);
+		result.setDataFieldLabel(Graph.COLOR, 'c');
+		result.setDataFieldLabel(Graph.DISTANCE, 'd');
+		result.setDataFieldLabel(Graph.PARENT, 'p');
+		int reached = 0, maxDistance = 0, v, i;
+		for (v = 0; v < VERTICES; ++v) {
+			result.setData(v, Graph.COLOR, distance[v] < 0 ? Graph.WHITE : Graph.BLACK);
+			result.setData(v, Graph.DISTANCE, distance[v]);
+			result.setData(v, Graph.PARENT, parent[v]);
+			if (distance[v] >= 0) ++reached;
+			maxDistance = Math.max(maxDistance, distance[v]);
+		}
+		if (order == null) {
+			// counting sort of the vertices reached by distance
+			int[] start = new int[maxDistance + 2];
+			for (v = 0; v < VERTICES; ++v) {
+				if (distance[v] >= 0) ++start[distance[v] + 1];
+			}
+			for (i = 1; i < start.length; ++i) {
+				start[i] += start[i - 1];
+			}
+			order = new int[reached];
+			for (v = 0; v < VERTICES; ++v) {
+				if (distance[v] >= 0) order[start[distance[v]]++] = v;
+			}
+		}
+		for (i = 0; i < reached; ++i) {
+			v = order[i];
+			if (parent[v] != Graph.NIL_VERTEX) result.uncheckedInsert(parent[v], v);
+		}
+		return result;
+	}
+
+	/**
+	 * Explores the adjacencies of frontier[lo] through frontier[hi - 1],
+	 * appending the vertices claimed to next at the position reserved
+	 * through tail
+	 */
+	private static class ExpandLevel extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Adjacency g;
+		private final AtomicIntegerArray dist;
+		private final int[] parent;
+		private final int level;
+		private final int[] frontier;
+		private final int lo;
+		private final int hi;
+		private final int[] next;
+		private final AtomicInteger tail;
+		private final int threshold;
+
+		ExpandLevel(Adjacency _g, AtomicIntegerArray _dist, int[] _parent, int _level,
+				int[] _frontier, int _lo, int _hi, int[] _next, AtomicInteger _tail, int _threshold) {
+			g = _g;
+			dist = _dist;
+			parent = _parent;
+			level = _level;
+			frontier = _frontier;
+			lo = _lo;
+			hi = _hi;
+			next = _next;
+			tail = _tail;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new ExpandLevel(g, dist, parent, level, frontier, lo, mid, next, tail, threshold),
+						new ExpandLevel(g, dist, parent, level, frontier, mid, hi, next, tail, threshold));
+				return;
+			}
+			int[] claimed = new int[Math.max(hi - lo, 16)];
+			int count = 0, i, u, v, a;
+			for (i = lo; i < hi; ++i) {
+				u = frontier[i];
+				for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+					v = g.target(u, a);
+					if (dist.get(v) < 0 && dist.compareAndSet(v, -1, level)) {
+						parent[v] = u;
+						if (count == claimed.length) {
+							claimed = Arrays.copyOf(claimed, 2 * count);
+						}
+						claimed[count++] = v;
+					}
+				}
+			}
+			if (count > 0) {
+				System.arraycopy(claimed, 0, next, tail.getAndAdd(count), count);
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Strongly connected components of a graph together with its
+ * component graph (CLRS, p. 617), which has a vertex for each component
+ * and an edge (c, d) whenever some edge of the original graph leads
+ * from component c to component d != c.
+ * The component graph is a directed acyclic CsrGraph with integer labels.
+ * @author Marshall Farrier
+ *
+ */
+public class Condensation {
+	private final char offset;
+	private final int components;
+	// no offset
+	private final int[] component;
+	private final CsrGraph dag;
+
+	/**
+	 * Builds the component graph in time O(V + E).
+	 * The members of each component are gathered with a counting sort,
+	 * and duplicate edges are skipped by remembering for each component
+	 * the last component from which an edge into it was added.
+	 * @param g The graph whose components are given
+	 * @param adj View of the edges of g
+	 * @param _component Component of each vertex of g, numbered from 0
+	 * without gaps. Not copied.
+	 */
+	Condensation(AbstractGraph g, Adjacency adj, int[] _component) {
+		final int VERTICES = _component.length;
+		int i, c, d, u, a, max = -1;
+		for (i = 0; i < VERTICES; ++i) {
+			if (_component[i] > max) max = _component[i];
+		}
+		offset = g.offset();
+		components = max + 1;
+		component = _component;
+
+		// members of component c are members[start[c]] through members[start[c + 1] - 1]
+		int[] start = new int[components + 1];
+		for (i = 0; i < VERTICES; ++i) {
+			++start[component[i] + 1];
+		}
+		for (c = 0; c < components; ++c) {
+			start[c + 1] += start[c];
+		}
+		int[] members = new int[VERTICES];
+		int[] pos = Arrays.copyOf(start, components);
+		for (i = 0; i < VERTICES; ++i) {
+			members[pos[component[i]]++] = i;
+		}
+
+		int[] offsets = new int[components + 1];
+		int[] targets = new int[16];
+		int[] lastFrom = new int[components];
+		Arrays.fill(lastFrom, -1);
+		int e = 0;
+		for (c = 0; c < components; ++c) {
+			offsets[c] = e;
+			for (i = start[c]; i < start[c + 1]; ++i) {
+				u = members[i];
+				for (a = adj.firstArc(u); a != Adjacency.NO_ARC; a = adj.nextArc(u, a)) {
+					d = component[adj.target(u, a)];
+					if (d == c || lastFrom[d] == c) continue;
+					lastFrom[d] = c;
+					if (e == targets.length) targets = Arrays.copyOf(targets, 2 * e);
+					targets[e++] = d;
+				}
+			}
+		}
+		offsets[components] = e;
+		dag = new CsrGraph(components, offsets, Arrays.copyOf(targets, e));
+	}
+
+	public int components() { return components; }
+
+	/**
+	 * Component of vertex _v of the original graph, a vertex of graph()
+	 * @param _v
+	 * @return
+	 */
+	public int component(int _v) {
+		int v = _v - offset;
+		if (v < 0 || component.length <= v) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return component[v];
+	}
+
+	/**
+	 * result[u - offset] is the component of vertex u.
+	 * The array is shared with this object and must not be modified.
+	 * @return
+	 */
+	public int[] componentArray() { return component; }
+
+	/**
+	 * The component graph
+	 * @return
+	 */
+	public CsrGraph graph() { return dag; }
+}
@@ -0,0 +1,288 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Preprocessing for a ContractionHierarchy (Geisberger et al.,
+ * "Contraction hierarchies: faster and simpler hierarchical routing in
+ * road networks", 2008) over a WeightedAdjacency view.
+ * Vertices are contracted one at a time in order of importance, and
+ * contracting v removes it from the remaining graph, adding a shortcut
+ * (u, x) for each path u -> v -> x that is the only shortest path from
+ * u to x left. The edges of each vertex to the vertices still remaining
+ * when it is contracted make up the hierarchy.
+ * @author Marshall Farrier
+ *
+ */
+final class Contraction {
+	// limit on the vertices settled by one witness search
+	private static final int WITNESS_SETTLED = 500;
+
+	private final int vertices;
+	// edges of the remaining graph, in both directions: vertex, weight, middle vertex or -1
+	private final int[][] outTarget, inSource, outMiddle, inMiddle;
+	private final double[][] outWeight, inWeight;
+	private final int[] outDegree, inDegree;
+	private final boolean[] contracted;
+	// number of neighbours already contracted
+	private final int[] removedNeighbors;
+	// witness search
+	private final double[] distance;
+	private final IndexedMinHeap q;
+	private final IntBuffer touched;
+
+	private Contraction(WeightedAdjacency g) {
+		vertices = g.vertices();
+		outTarget = new int[vertices][];
+		inSource = new int[vertices][];
+		outMiddle = new int[vertices][];
+		inMiddle = new int[vertices][];
+		outWeight = new double[vertices][];
+		inWeight = new double[vertices][];
+		outDegree = new int[vertices];
+		inDegree = new int[vertices];
+		contracted = new boolean[vertices];
+		removedNeighbors = new int[vertices];
+		distance = new double[vertices];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		q = new IndexedMinHeap(vertices);
+		touched = new IntBuffer(16);
+		int u, v, a;
+		double w;
+		for (u = 0; u < vertices; ++u) {
+			outTarget[u] = new int[Math.max(g.outDegree(u), 2)];
+			outMiddle[u] = new int[outTarget[u].length];
+			outWeight[u] = new double[outTarget[u].length];
+			inSource[u] = new int[2];
+			inMiddle[u] = new int[2];
+			inWeight[u] = new double[2];
+		}
+		for (u = 0; u < vertices; ++u) {
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				w = g.weight(u, a);
+				if (w < 0.0) {
+					throw new IllegalArgumentException("Negative edge weight");
+				}
+				v = g.target(u, a);
+				// loops are never on a shortest path
+				if (v != u) addEdge(u, v, w, -1);
+			}
+		}
+	}
+
+	/**
+	 * Contracts all vertices of g
+	 * Throws an IllegalArgumentException if g has an edge of negative weight.
+	 * @param owner The graph of which g is a view
+	 * @param g
+	 * @return
+	 */
+	static ContractionHierarchy build(AbstractGraph owner, WeightedAdjacency g) {
+		return new Contraction(g).contractAll(owner.offset());
+	}
+
+	private ContractionHierarchy contractAll(char offset) {
+		int[] rank = new int[vertices];
+		int[] vertexOf = new int[vertices];
+		// edges of the hierarchy as they are recorded, with vertices rather than ranks
+		int[] upOffsets = new int[vertices + 1], downOffsets = new int[vertices + 1];
+		EdgeList up = new EdgeList(), down = new EdgeList();
+		IndexedMinHeap order = new IndexedMinHeap(vertices);
+		int v, r = 0, i;
+		double p;
+		for (v = 0; v < vertices; ++v) {
+			order.insert(v, priority(v));
+		}
+		while (!order.isEmpty()) {
+			v = order.poll();
+			// priorities of the remaining vertices are updated lazily, when they come to the top
+			p = priority(v);
+			if (!order.isEmpty() && p > order.priority(order.peek())) {
+				order.insert(v, p);
+				continue;
+			}
+			rank[v] = r;
+			vertexOf[r] = v;
+			upOffsets[r] = up.size;
+			downOffsets[r] = down.size;
+			for (i = 0; i < outDegree[v]; ++i) {
+				up.add(outTarget[v][i], outWeight[v][i], outMiddle[v][i]);
+			}
+			for (i = 0; i < inDegree[v]; ++i) {
+				down.add(inSource[v][i], inWeight[v][i], inMiddle[v][i]);
+			}
+			contract(v, false);
+			++r;
+		}
+		upOffsets[vertices] = up.size;
+		downOffsets[vertices] = down.size;
+		up.toRanks(rank);
+		down.toRanks(rank);
+		return new ContractionHierarchy(offset, rank, vertexOf, upOffsets, up.vertex(), up.weight(),
+				up.middle(), downOffsets, down.vertex(), down.weight(), down.middle());
+	}
+
+	// edge difference plus contracted neighbours: low for vertices that are cheap to remove
+	private double priority(int v) {
+		return contract(v, true) - outDegree[v] - inDegree[v] + removedNeighbors[v];
+	}
+
+	/**
+	 * Finds the shortcuts needed to remove v. If simulate is true, only
+	 * counts them; otherwise adds them and removes v from the graph.
+	 * @return The number of shortcuts
+	 */
+	private int contract(int v, boolean simulate) {
+		int shortcuts = 0, i, j, u, x;
+		double wu, limit;
+		contracted[v] = true;
+		for (i = 0; i < inDegree[v]; ++i) {
+			u = inSource[v][i];
+			wu = inWeight[v][i];
+			// the weight of the longest path u -> v -> x, or -1 if there is none
+			limit = -1.0;
+			for (j = 0; j < outDegree[v]; ++j) {
+				if (outTarget[v][j] != u) limit = Math.max(limit, wu + outWeight[v][j]);
+			}
+			if (limit < 0.0) continue;
+			witnessSearch(u, limit);
+			for (j = 0; j < outDegree[v]; ++j) {
+				x = outTarget[v][j];
+				if (x == u || distance[x] <= wu + outWeight[v][j]) continue;
+				++shortcuts;
+				if (!simulate) addEdge(u, x, wu + outWeight[v][j], v);
+			}
+			resetWitnessSearch();
+		}
+		if (simulate) {
+			contracted[v] = false;
+			return shortcuts;
+		}
+		for (i = 0; i < outDegree[v]; ++i) {
+			x = outTarget[v][i];
+			removeIn(x, v);
+			++removedNeighbors[x];
+		}
+		for (i = 0; i < inDegree[v]; ++i) {
+			u = inSource[v][i];
+			removeOut(u, v);
+			++removedNeighbors[u];
+		}
+		return shortcuts;
+	}
+
+	// Dijkstra from s in the remaining graph, settling no vertex farther than limit
+	private void witnessSearch(int s, double limit) {
+		int u, x, i, settled = 0;
+		double d;
+		distance[s] = 0.0;
+		touched.add(s);
+		q.insert(s, 0.0);
+		while (!q.isEmpty() && settled < WITNESS_SETTLED) {
+			u = q.poll();
+			if (distance[u] > limit) break;
+			++settled;
+			for (i = 0; i < outDegree[u]; ++i) {
+				x = outTarget[u][i];
+				if (contracted[x]) continue;
+				d = distance[u] + outWeight[u][i];
+				if (d < distance[x]) {
+					if (distance[x] == Double.POSITIVE_INFINITY) touched.add(x);
+					distance[x] = d;
+					q.offer(x, d);
+				}
+			}
+		}
+	}
+
+	private void resetWitnessSearch() {
+		for (int i = 0; i < touched.size(); ++i) {
+			distance[touched.get(i)] = Double.POSITIVE_INFINITY;
+		}
+		touched.clear();
+		q.clear();
+	}
+
+	// adds the edge (u, x), or lowers the weight of the edge already there
+	private void addEdge(int u, int x, double w, int middle) {
+		int i;
+		for (i = 0; i < outDegree[u]; ++i) {
+			if (outTarget[u][i] == x) {
+				if (w < outWeight[u][i]) {
+					outWeight[u][i] = w;
+					outMiddle[u][i] = middle;
+					for (i = 0; inSource[x][i] != u; ++i);
+					inWeight[x][i] = w;
+					inMiddle[x][i] = middle;
+				}
+				return;
+			}
+		}
+		if (outDegree[u] == outTarget[u].length) {
+			outTarget[u] = Arrays.copyOf(outTarget[u], 2 * outDegree[u]);
+			outWeight[u] = Arrays.copyOf(outWeight[u], 2 * outDegree[u]);
+			outMiddle[u] = Arrays.copyOf(outMiddle[u], 2 * outDegree[u]);
+		}
+		outTarget[u][outDegree[u]] = x;
+		outWeight[u][outDegree[u]] = w;
+		outMiddle[u][outDegree[u]++] = middle;
+		if (inDegree[x] == inSource[x].length) {
+			inSource[x] = Arrays.copyOf(inSource[x], 2 * inDegree[x]);
+			inWeight[x] = Arrays.copyOf(inWeight[x], 2 * inDegree[x]);
+			inMiddle[x] = Arrays.copyOf(inMiddle[x], 2 * inDegree[x]);
+		}
+		inSource[x][inDegree[x]] = u;
+		inWeight[x][inDegree[x]] = w;
+		inMiddle[x][inDegree[x]++] = middle;
+	}
+
+	// removes u from the out-edges of x by moving the last edge into its place
+	private void removeOut(int x, int u) {
+		int i, last = --outDegree[x];
+		for (i = 0; outTarget[x][i] != u; ++i);
+		outTarget[x][i] = outTarget[x][last];
+		outWeight[x][i] = outWeight[x][last];
+		outMiddle[x][i] = outMiddle[x][last];
+	}
+
+	private void removeIn(int x, int u) {
+		int i, last = --inDegree[x];
+		for (i = 0; inSource[x][i] != u; ++i);
+		inSource[x][i] = inSource[x][last];
+		inWeight[x][i] = inWeight[x][last];
+		inMiddle[x][i] = inMiddle[x][last];
+	}
+
+	// growable parallel arrays of the edges of the hierarchy
+	private static class EdgeList {
+		private int[] vertex = new int[16];
+		private double[] weight = new double[16];
+		private int[] middle = new int[16];
+		private int size;
+
+		void add(int v, double w, int m) {
+			if (size == vertex.length) {
+				vertex = Arrays.copyOf(vertex, 2 * size);
+				weight = Arrays.copyOf(weight, 2 * size);
+				middle = Arrays.copyOf(middle, 2 * size);
+			}
+			vertex[size] = v;
+			weight[size] = w;
+			middle[size++] = m;
+		}
+
+		void toRanks(int[] rank) {
+			for (int i = 0; i < size; ++i) {
+				vertex[i] = rank[vertex[i]];
+				if (middle[i] != -1) middle[i] = rank[middle[i]];
+			}
+		}
+
+		int[] vertex() { return Arrays.copyOf(vertex, size); }
+		double[] weight() { return Arrays.copyOf(weight, size); }
+		int[] middle() { return Arrays.copyOf(middle, size); }
+	}
+}
@@ -0,0 +1,400 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Index for fast shortest path queries between pairs of vertices of a
+ * weighted graph that does not change, built by
+ * WeightedLinkedListGraph.contractionHierarchy().
+ * Each vertex has a rank, the order in which it was contracted. The
+ * hierarchy keeps, for each vertex, its edges to higher-ranked vertices
+ * in both directions, including shortcuts that stand for paths through
+ * lower-ranked vertices. Some shortest path from s to t then runs upward
+ * in rank from s and then downward to t, so a query runs Dijkstra's
+ * algorithm forward from s and backward from t over upward edges only,
+ * which settles very few vertices.
+ * Vertices are stored by rank in compressed sparse row form, and
+ * vertices are given and returned with the offset of the original graph.
+ * @author Marshall Farrier
+ *
+ */
+public class ContractionHierarchy {
+	// identifies the format written by write()
+	private static final int MAGIC = 0x43483031;
+	private final char offset;
+	// rank of each vertex and vertex of each rank
+	private final int[] rank;
+	private final int[] vertexOf;
+	// edges from rank r to higher ranks are upTarget[upOffsets[r]] through
+	// upTarget[upOffsets[r + 1] - 1], with their weights and the rank of the
+	// vertex that each shortcut bypasses, or -1 for original edges
+	private final int[] upOffsets;
+	private final int[] upTarget;
+	private final double[] upWeight;
+	private final int[] upMiddle;
+	// edges into rank r from higher ranks, laid out in the same way
+	private final int[] downOffsets;
+	private final int[] downSource;
+	private final double[] downWeight;
+	private final int[] downMiddle;
+
+	/**
+	 * The arrays are not copied. All vertices in them are ranks
+	 * except for the vertices of vertexOf.
+	 */
+	ContractionHierarchy(char _offset, int[] _rank, int[] _vertexOf, int[] _upOffsets,
+			int[] _upTarget, double[] _upWeight, int[] _upMiddle, int[] _downOffsets,
+			int[] _downSource, double[] _downWeight, int[] _downMiddle) {
+		offset = _offset;
+		rank = _rank;
+		vertexOf = _vertexOf;
+		upOffsets = _upOffsets;
+		upTarget = _upTarget;
+		upWeight = _upWeight;
+		upMiddle = _upMiddle;
+		downOffsets = _downOffsets;
+		downSource = _downSource;
+		downWeight = _downWeight;
+		downMiddle = _downMiddle;
+	}
+
+	public int vertices() { return rank.length; }
+
+	/**
+	 * Number of edges of the hierarchy, original edges and shortcuts
+	 * @return
+	 */
+	public int edges() { return upTarget.length + downSource.length; }
+
+	/**
+	 * Weight of a shortest path from _s to _t, or Double.POSITIVE_INFINITY
+	 * if there is none. Allocates a new Query, so for many queries
+	 * newQuery() is faster.
+	 * @param _s
+	 * @param _t
+	 * @return
+	 */
+	public double distance(int _s, int _t) {
+		return newQuery().distance(_s, _t);
+	}
+
+	/**
+	 * The vertices of a shortest path from _s to _t, beginning with _s
+	 * and ending with _t. Empty if there is none.
+	 * Allocates a new Query, so for many queries newQuery() is faster.
+	 * @param _s
+	 * @param _t
+	 * @return
+	 */
+	public int[] path(int _s, int _t) {
+		return newQuery().path(_s, _t);
+	}
+
+	/**
+	 * Work space for queries, which may be used for any number of queries
+	 * but only by one thread at a time. The hierarchy itself is never
+	 * modified, so each thread may have its own Query.
+	 * @return
+	 */
+	public Query newQuery() {
+		return new Query();
+	}
+
+	/**
+	 * Writes the hierarchy to out in a binary format read by read()
+	 * @param out Not closed
+	 * @throws IOException
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeChar(offset);
+		writeInts(data, rank);
+		writeInts(data, upOffsets);
+		writeInts(data, upTarget);
+		writeDoubles(data, upWeight);
+		writeInts(data, upMiddle);
+		writeInts(data, downOffsets);
+		writeInts(data, downSource);
+		writeDoubles(data, downWeight);
+		writeInts(data, downMiddle);
+		data.flush();
+	}
+
+	/**
+	 * Reads a hierarchy written by write()
+	 * @param in Not closed
+	 * @return
+	 * @throws IOException If in does not hold a hierarchy
+	 */
+	public static ContractionHierarchy read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a contraction hierarchy");
+		}
+		char offset = data.readChar();
+		int[] rank = readInts(data);
+		int[] vertexOf = new int[rank.length];
+		for (int v = 0; v < rank.length; ++v) {
+			vertexOf[rank[v]] = v;
+		}
+		return new ContractionHierarchy(offset, rank, vertexOf, readInts(data), readInts(data),
+				readDoubles(data), readInts(data), readInts(data), readInts(data),
+				readDoubles(data), readInts(data));
+	}
+
+	private static void writeInts(DataOutputStream data, int[] a) throws IOException {
+		data.writeInt(a.length);
+		for (int x : a) {
+			data.writeInt(x);
+		}
+	}
+
+	private static void writeDoubles(DataOutputStream data, double[] a) throws IOException {
+		data.writeInt(a.length);
+		for (double x : a) {
+			data.writeDouble(x);
+		}
+	}
+
+	private static int[] readInts(DataInputStream data) throws IOException {
+		int[] result = new int[data.readInt()];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = data.readInt();
+		}
+		return result;
+	}
+
+	private static double[] readDoubles(DataInputStream data) throws IOException {
+		double[] result = new double[data.readInt()];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = data.readDouble();
+		}
+		return result;
+	}
+
+	// rank of vertex _v
+	private int rankOf(int _v) {
+		int v = _v - offset;
+		if (v < 0 || rank.length <= v) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return rank[v];
+	}
+
+	/**
+	 * Bidirectional search over the upward edges. Only the entries
+	 * touched by a query are reset for the next one, so the cost of a
+	 * query does not depend on the size of the graph.
+	 */
+	public class Query {
+		// forward and backward distances and the edges by which each rank
+		// was reached, all indexed by rank
+		private final double[] forward;
+		private final double[] backward;
+		private final int[] forwardArc;
+		private final int[] backwardArc;
+		private final IndexedMinHeap forwardQueue;
+		private final IndexedMinHeap backwardQueue;
+		private final IntBuffer touched;
+		// rank at which the best path found meets, or -1
+		private int meet;
+
+		private Query() {
+			final int VERTICES = rank.length;
+			forward = new double[VERTICES];
+			backward = new double[VERTICES];
+			forwardArc = new int[VERTICES];
+			backwardArc = new int[VERTICES];
+			for (int r = 0; r < VERTICES; ++r) {
+				forward[r] = Double.POSITIVE_INFINITY;
+				backward[r] = Double.POSITIVE_INFINITY;
+			}
+			forwardQueue = new IndexedMinHeap(VERTICES);
+			backwardQueue = new IndexedMinHeap(VERTICES);
+			touched = new IntBuffer(64);
+		}
+
+		/**
+		 * As ContractionHierarchy.distance(), without allocation
+		 * @param _s
+		 * @param _t
+		 * @return
+		 */
+		public double distance(int _s, int _t) {
+			double result = search(rankOf(_s), rankOf(_t));
+			reset();
+			return result;
+		}
+
+		/**
+		 * As ContractionHierarchy.path(), with shortcuts replaced by the
+		 * edges they stand for
+		 * @param _s
+		 * @param _t
+		 * @return
+		 */
+		public int[] path(int _s, int _t) {
+			int s = rankOf(_s), t = rankOf(_t);
+			if (search(s, t) == Double.POSITIVE_INFINITY) {
+				reset();
+				return new int[0];
+			}
+			IntBuffer ranks = new IntBuffer(16);
+			int r, a, i;
+			// edges from s up to meet, found in reverse
+			IntBuffer arcs = new IntBuffer(16);
+			for (r = meet; r != s; r = source(a)) {
+				a = forwardArc[r];
+				arcs.add(a);
+			}
+			ranks.add(s);
+			for (i = arcs.size() - 1; i >= 0; --i) {
+				a = arcs.get(i);
+				unpack(source(a), upTarget[a], upMiddle[a], ranks);
+			}
+			// edges from meet down to t
+			for (r = meet; r != t; r = downOwner(a)) {
+				a = backwardArc[r];
+				unpack(r, downOwner(a), downMiddle[a], ranks);
+			}
+			reset();
+			int[] result = new int[ranks.size()];
+			for (i = 0; i < result.length; ++i) {
+				result[i] = vertexOf[ranks.get(i)] + offset;
+			}
+			return result;
+		}
+
+		private double search(int s, int t) {
+			double best = Double.POSITIVE_INFINITY, d;
+			int u, a;
+			meet = -1;
+			forward[s] = 0.0;
+			backward[t] = 0.0;
+			touched.add(s);
+			touched.add(t);
+			forwardQueue.insert(s, 0.0);
+			backwardQueue.insert(t, 0.0);
+			while (!forwardQueue.isEmpty() || !backwardQueue.isEmpty()) {
+				// neither side can improve on best once its queue is past it
+				if (!forwardQueue.isEmpty() && forwardQueue.priority(forwardQueue.peek()) >= best) {
+					forwardQueue.clear();
+				}
+				if (!backwardQueue.isEmpty() && backwardQueue.priority(backwardQueue.peek()) >= best) {
+					backwardQueue.clear();
+				}
+				if (!forwardQueue.isEmpty()) {
+					u = forwardQueue.poll();
+					if (forward[u] + backward[u] < best) {
+						best = forward[u] + backward[u];
+						meet = u;
+					}
+					for (a = upOffsets[u]; a < upOffsets[u + 1]; ++a) {
+						d = forward[u] + upWeight[a];
+						if (d < forward[upTarget[a]]) {
+							if (forward[upTarget[a]] == Double.POSITIVE_INFINITY
+									&& backward[upTarget[a]] == Double.POSITIVE_INFINITY) {
+								touched.add(upTarget[a]);
+							}
+							forward[upTarget[a]] = d;
+							forwardArc[upTarget[a]] = a;
+							forwardQueue.offer(upTarget[a], d);
+						}
+					}
+				}
+				if (!backwardQueue.isEmpty()) {
+					u = backwardQueue.poll();
+					if (forward[u] + backward[u] < best) {
+						best = forward[u] + backward[u];
+						meet = u;
+					}
+					for (a = downOffsets[u]; a < downOffsets[u + 1]; ++a) {
+						d = backward[u] + downWeight[a];
+						if (d < backward[downSource[a]]) {
+							if (forward[downSource[a]] == Double.POSITIVE_INFINITY
+									&& backward[downSource[a]] == Double.POSITIVE_INFINITY) {
+								touched.add(downSource[a]);
+							}
+							backward[downSource[a]] = d;
+							backwardArc[downSource[a]] = a;
+							backwardQueue.offer(downSource[a], d);
+						}
+					}
+				}
+			}
+			return best;
+		}
+
+		private void reset() {
+			for (int i = 0; i < touched.size(); ++i) {
+				forward[touched.get(i)] = Double.POSITIVE_INFINITY;
+				backward[touched.get(i)] = Double.POSITIVE_INFINITY;
+			}
+			touched.clear();
+			forwardQueue.clear();
+			backwardQueue.clear();
+		}
+
+		// the rank whose upward edges include arc a
+		private int source(int a) {
+			return owner(upOffsets, a);
+		}
+
+		// the rank whose downward edges include arc a, which is the target of a
+		private int downOwner(int a) {
+			return owner(downOffsets, a);
+		}
+
+		/**
+		 * Appends to ranks the vertices after u of the path that the edge
+		 * (u, x) stands for. A shortcut bypassing m stands for the edge
+		 * (u, m), which is among the downward edges of m, followed by the
+		 * edge (m, x), which is among its upward edges.
+		 */
+		private void unpack(int u, int x, int m, IntBuffer ranks) {
+			IntBuffer stack = new IntBuffer(16);
+			int a;
+			stack.add(x);
+			stack.add(m);
+			stack.add(u);
+			// edges are pushed as x, m, u and so popped as u, m, x
+			while (stack.size() > 0) {
+				u = stack.removeLast();
+				m = stack.removeLast();
+				x = stack.removeLast();
+				if (m == -1) {
+					ranks.add(x);
+					continue;
+				}
+				// the second half is pushed first so that the first half is unpacked first
+				for (a = upOffsets[m]; upTarget[a] != x; ++a);
+				stack.add(x);
+				stack.add(upMiddle[a]);
+				stack.add(m);
+				for (a = downOffsets[m]; downSource[a] != u; ++a);
+				stack.add(m);
+				stack.add(downMiddle[a]);
+				stack.add(u);
+			}
+		}
+	}
+
+	// the rank r with offsets[r] <= a < offsets[r + 1]
+	private static int owner(int[] offsets, int a) {
+		int lo = 0, hi = offsets.length - 1, mid;
+		while (hi - lo > 1) {
+			mid = (lo + hi) >>> 1;
+			if (offsets[mid] <= a) lo = mid;
+			else hi = mid;
+		}
+		return lo;
+	}
+}
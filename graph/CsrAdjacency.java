@@ -0,0 +1,90 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Adjacency view over arrays in compressed sparse row form:
+ * the adjacencies of u are targets[offsets[u]] through
+ * targets[offsets[u + 1] - 1], and an arc is a position in targets.
+ * Used by CsrGraph and to hold the reverse of other views.
+ * The arrays are shared, not copied, and must not be modified.
+ * @author Marshall Farrier
+ *
+ */
+class CsrAdjacency implements Adjacency {
+	private final boolean directed;
+	private final int[] offsets;
+	private final int[] targets;
+	// built on first call to reverse()
+	private Adjacency reverse;
+
+	CsrAdjacency(boolean _directed, int[] _offsets, int[] _targets) {
+		directed = _directed;
+		offsets = _offsets;
+		targets = _targets;
+		reverse = _directed ? null : this;
+	}
+
+	// used by reverse() so that the reverse of the reverse is g
+	private CsrAdjacency(int[] _offsets, int[] _targets, Adjacency g) {
+		directed = true;
+		offsets = _offsets;
+		targets = _targets;
+		reverse = g;
+	}
+
+	/**
+	 * Builds the reverse of g with a counting sort on the targets,
+	 * so that the in-adjacencies of each vertex are in ascending order.
+	 * @param g
+	 * @return
+	 */
+	static CsrAdjacency reverseOf(Adjacency g) {
+		final int VERTICES = g.vertices();
+		int[] rOffsets = new int[VERTICES + 1];
+		int u, a;
+		for (u = 0; u < VERTICES; ++u) {
+			for (a = g.firstArc(u); a != NO_ARC; a = g.nextArc(u, a)) {
+				++rOffsets[g.target(u, a) + 1];
+			}
+		}
+		for (u = 0; u < VERTICES; ++u) {
+			rOffsets[u + 1] += rOffsets[u];
+		}
+		int[] rTargets = new int[rOffsets[VERTICES]];
+		int[] pos = new int[VERTICES];
+		System.arraycopy(rOffsets, 0, pos, 0, VERTICES);
+		for (u = 0; u < VERTICES; ++u) {
+			for (a = g.firstArc(u); a != NO_ARC; a = g.nextArc(u, a)) {
+				rTargets[pos[g.target(u, a)]++] = u;
+			}
+		}
+		return new CsrAdjacency(rOffsets, rTargets, g);
+	}
+
+	public int vertices() { return offsets.length - 1; }
+
+	public boolean directed() { return directed; }
+
+	public int outDegree(int u) {
+		return offsets[u + 1] - offsets[u];
+	}
+
+	public int firstArc(int u) {
+		return offsets[u] < offsets[u + 1] ? offsets[u] : NO_ARC;
+	}
+
+	public int nextArc(int u, int arc) {
+		return arc + 1 < offsets[u + 1] ? arc + 1 : NO_ARC;
+	}
+
+	public int target(int u, int arc) {
+		return targets[arc];
+	}
+
+	public Adjacency reverse() {
+		if (reverse == null) reverse = reverseOf(this);
+		return reverse;
+	}
+}
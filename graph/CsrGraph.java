@@ -0,0 +1,321 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable graph in compressed sparse row (CSR) form.
+ * The adjacencies of vertex u are targets[offsets[u]] through
+ * targets[offsets[u + 1] - 1], in the same order as in the graph
+ * from which the CsrGraph was built, so that searches visit vertices
+ * in the same order as on the original graph.
+ * Undirected edges are stored in both directions, as in LinkedListGraph.
+ * Edges cannot be inserted or removed, but vertex satellite data
+ * is supported as in the other graph classes.
+ * Use this class to freeze a LinkedListGraph or MatrixGraph once
+ * it has been built for read-mostly workloads.
+ * @author Marshall Farrier
+ *
+ */
+public class CsrGraph extends AbstractGraph implements Graph {
+	private int e;
+	// offsets has length vertices() + 1
+	private int[] offsets;
+	private int[] targets;
+	// built on first call to adjacency()
+	private CsrAdjacency view;
+
+// constructors
+	public CsrGraph(LinkedListGraph _g) {
+		super(_g);
+		final int VERTICES = vertices();
+		final char OFFSET = offset();
+		e = _g.edges();
+		offsets = new int[VERTICES + 1];
+		targets = new int[directed() ? e : 2 * e];
+		int i, j, size, pos = 0, maxDegree = 0;
+		for (i = 0; i < VERTICES; ++i) {
+			maxDegree = Math.max(maxDegree, _g.outDegree(i + OFFSET));
+		}
+		int[] adjacencies = new int[maxDegree];
+		for (i = 0; i < VERTICES; ++i) {
+			offsets[i] = pos;
+			size = _g.getAdjacencies(i + OFFSET, adjacencies);
+			for (j = 0; j < size; ++j) {
+				targets[pos++] = adjacencies[j] - OFFSET;
+			}
+		}
+		offsets[VERTICES] = pos;
+	}
+
+	public CsrGraph(MatrixGraph _g) {
+		super(_g);
+		final int VERTICES = vertices();
+		final char OFFSET = offset();
+		e = _g.edges();
+		offsets = new int[VERTICES + 1];
+		targets = new int[directed() ? e : 2 * e];
+		int i, j, pos = 0;
+		int[] adjacencies;
+		for (i = 0; i < VERTICES; ++i) {
+			offsets[i] = pos;
+			adjacencies = _g.getAdjacencies(i + OFFSET);
+			for (j = 0; j < adjacencies.length; ++j) {
+				targets[pos++] = adjacencies[j] - OFFSET;
+			}
+		}
+		offsets[VERTICES] = pos;
+	}
+
+	/**
+	 * Edges are shared with _g, since neither graph can modify them.
+	 * Vertex data is copied.
+	 * @param _g
+	 */
+	public CsrGraph(CsrGraph _g) {
+		super(_g);
+		e = _g.e;
+		offsets = _g.offsets;
+		targets = _g.targets;
+	}
+
+	/**
+	 * This constructor ignores the contents of the data fields
+	 * in the graph to be copied and creates new data fields, all
+	 * of which are initialized to 0.
+	 * @param g
+	 * @param dataFields
+	 */
+	public CsrGraph(CsrGraph g, int dataFields) {
+		super(g, dataFields);
+		e = g.e;
+		offsets = g.offsets;
+		targets = g.targets;
+	}
+
+	/**
+	 * Directed graph with integer labels and no data fields over
+	 * the given arrays, which are not copied.
+	 * The targets of each vertex must be distinct.
+	 * @param _v
+	 * @param _offsets
+	 * @param _targets
+	 */
+	CsrGraph(int _v, int[] _offsets, int[] _targets) {
+		super(_v, true);
+		e = _targets.length;
+		offsets = _offsets;
+		targets = _targets;
+	}
+
+	// used by transpose()
+	private CsrGraph(CsrGraph g, int[] _offsets, int[] _targets) {
+		super(g);
+		e = g.e;
+		offsets = _offsets;
+		targets = _targets;
+	}
+
+// methods inherited from Graph interface
+	/**
+	 * Throws an UnsupportedOperationException: CsrGraph is immutable
+	 */
+	public boolean insert(int _f, int _t) {
+		throw new UnsupportedOperationException("CsrGraph is immutable");
+	}
+
+	public boolean insert(Edge _e) {
+		return insert(_e.from(), _e.to());
+	}
+
+	/**
+	 * Throws an UnsupportedOperationException: CsrGraph is immutable
+	 */
+	public boolean remove(int _f, int _t) {
+		throw new UnsupportedOperationException("CsrGraph is immutable");
+	}
+
+	public boolean remove(Edge _e) {
+		return remove(_e.from(), _e.to());
+	}
+
+	public int edges() { return e; }
+
+	public Edge[] getEdges() {
+		final char OFFSET = offset();
+		final boolean CHAR_REP = charRep();
+		final int VERTICES = vertices();
+		Edge[] result = new Edge[e];
+		if (e == 0) return result;
+		int i, j, end, counter = 0;
+		if (directed()) {
+			for (i = 0; i < VERTICES; ++i) {
+				end = offsets[i + 1];
+				for (j = offsets[i]; j < end; ++j) {
+					result[counter++] = new Edge(i + OFFSET, targets[j] + OFFSET, CHAR_REP);
+				}
+			}
+		}
+		else {
+			for (i = 0; i < VERTICES; ++i) {
+				end = offsets[i + 1];
+				for (j = offsets[i]; j < end; ++j) {
+					if (i < targets[j]) {
+						result[counter++] = new Edge(i + OFFSET, targets[j] + OFFSET, CHAR_REP);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	public Edge[] getEdges(int _f) {
+		final char OFFSET = offset();
+		int _from = _f - OFFSET;
+		if (_from < 0 || vertices() <= _from) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		final int START = offsets[_from];
+		Edge[] result = new Edge[offsets[_from + 1] - START];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = new Edge(_from + OFFSET, targets[START + i] + OFFSET, charRep());
+		}
+		return result;
+	}
+
+	/**
+	 * If vertex labels are characters, the contents of the resulting
+	 * array will need to be type-cast as char for viewing the results
+	 * in the desired manner.
+	 */
+	public int[] getAdjacencies(int _f) {
+		final char OFFSET = offset();
+		int _from = _f - OFFSET;
+		if (_from < 0 || vertices() <= _from) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		int[] result = Arrays.copyOfRange(targets, offsets[_from], offsets[_from + 1]);
+		if (OFFSET != 0) {
+			for (int i = 0; i < result.length; ++i) {
+				result[i] += OFFSET;
+			}
+		}
+		return result;
+	}
+
+	public boolean hasEdge(int _f, int _t) {
+		final char OFFSET = offset();
+		final int VERTICES = vertices();
+		int _from = _f - OFFSET, _to = _t - OFFSET;
+		if (_from < 0 || _to < 0 || _from >= VERTICES || _to >= VERTICES) {
+			throw new IllegalArgumentException("Invalid edge for current graph");
+		}
+		final int END = offsets[_from + 1];
+		for (int i = offsets[_from]; i < END; ++i) {
+			if (targets[i] == _to) return true;
+		}
+		return false;
+	}
+
+	public boolean hasEdge(Edge _e) {
+		return hasEdge(_e.from(), _e.to());
+	}
+
+	/**
+	 * Throws an UnsupportedOperationException if calling object
+	 * is undirected.
+	 * Uses a counting sort on the targets, so the adjacencies of each
+	 * vertex in the result are in ascending order.
+	 */
+	public Graph transpose() {
+		if (!directed()) {
+			throw new UnsupportedOperationException("Transpose operation trivial on undirected graphs");
+		}
+		final int VERTICES = vertices();
+		int[] tOffsets = new int[VERTICES + 1];
+		int[] tTargets = new int[targets.length];
+		int i, j, end;
+		// count in-degrees
+		for (i = 0; i < targets.length; ++i) {
+			++tOffsets[targets[i] + 1];
+		}
+		for (i = 0; i < VERTICES; ++i) {
+			tOffsets[i + 1] += tOffsets[i];
+		}
+		int[] pos = Arrays.copyOf(tOffsets, VERTICES);
+		for (i = 0; i < VERTICES; ++i) {
+			end = offsets[i + 1];
+			for (j = offsets[i]; j < end; ++j) {
+				tTargets[pos[targets[j]]++] = i;
+			}
+		}
+		return new CsrGraph(this, tOffsets, tTargets);
+	}
+
+// methods inherited from AbstractGraph
+	/**
+	 * An arc is a position in the targets array.
+	 * The view, and with it the reverse graph, is built only once.
+	 */
+	Adjacency adjacency() {
+		if (view == null) view = new CsrAdjacency(directed(), offsets, targets);
+		return view;
+	}
+
+// methods inherited from Object
+	// edges are shared, vertex data is copied
+	@Override
+	public CsrGraph clone() {
+		return new CsrGraph(this);
+	}
+
+	@Override
+	public String toString() {
+		final char OFFSET = offset();
+		final int VERTICES = vertices();
+		StringBuilder result = new StringBuilder();
+		int i, j, end, width = String.valueOf(VERTICES - 1).length();
+		for (i = 0; i < VERTICES; ++i) {
+			if (charRep()) {
+				result.append((char)(i + OFFSET));
+			}
+			else {
+				for (j = String.valueOf(i).length(); j < width; ++j) {
+					result.append(' ');
+				}
+				result.append(i);
+			}
+			result.append(": ");
+			end = offsets[i + 1];
+			for (j = offsets[i]; j < end; ++j) {
+				if (j > offsets[i]) result.append(" -> ");
+				if (charRep()) result.append((char)(targets[j] + OFFSET));
+				else result.append(targets[j]);
+			}
+			if (i < VERTICES - 1) result.append('\n');
+		}
+		return result.toString();
+	}
+
+	/**
+	 * CLRS, p. 595
+	 * Same result as LinkedListGraph.breadthFirstSearch(), built from
+	 * breadthFirstSearchCompact()
+	 * @param _s vertex from which to search
+	 * @return
+	 */
+	public LinkedListGraph breadthFirstSearch(int _s) {
+		return breadthFirstSearchCompact(_s).tree();
+	}
+
+	/**
+	 * CLRS, p. 604
+	 * Same result as LinkedListGraph.depthFirstSearch()
+	 * @return
+	 */
+	public LinkedListGraph depthFirstSearch() {
+		return DepthFirstSearch.forest(this, adjacency(), null, null, false);
+	}
+}
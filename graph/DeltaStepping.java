@@ -0,0 +1,253 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel single-source shortest paths by delta-stepping (Meyer and
+ * Sanders, "Delta-stepping: a parallelizable shortest path algorithm",
+ * 2003) over a WeightedAdjacency view. Vertices are internal (no offset).
+ * Tentative distances are kept in buckets of width delta. Edges of
+ * weight at most delta are light and those heavier are heavy.
+ * The lowest nonempty bucket is emptied by relaxing the light edges of
+ * its vertices in parallel, repeating while relaxations put vertices
+ * back into it, and then the heavy edges of all vertices removed from
+ * the bucket are relaxed once. A small delta does little more work than
+ * Dijkstra's algorithm but leaves little to do in parallel, while a
+ * large delta gives large buckets at the cost of relaxing edges repeatedly.
+ * @author Marshall Farrier
+ *
+ */
+final class DeltaStepping {
+	// limit on the buckets in use at once, which is about the maximum weight over delta
+	private static final long MAX_BUCKETS = 1L << 26;
+	private static final long INFINITY = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+
+	private DeltaStepping() {}
+
+	/**
+	 * Shortest paths from s. The distances are those of Dijkstra's
+	 * algorithm, and parent gives a shortest-path tree, but where there
+	 * are several shortest paths the parents may differ.
+	 * Throws an IllegalArgumentException if g has an edge of negative
+	 * weight or delta is so small for the weights that too many buckets
+	 * would be needed.
+	 * @param g Must not be modified during the search
+	 * @param s
+	 * @param delta Bucket width, positive
+	 * @param distance Filled in by the search, length g.vertices()
+	 * @param parent Filled in by the search, length g.vertices()
+	 * @param pool
+	 * @param threshold Maximum number of vertices relaxed by one task
+	 */
+	static void search(WeightedAdjacency g, int s, double delta, double[] distance, int[] parent,
+			ForkJoinPool pool, int threshold) {
+		final int VERTICES = g.vertices();
+		int u, a, k;
+		double w, maxWeight = 0.0;
+		for (u = 0; u < VERTICES; ++u) {
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				w = g.weight(u, a);
+				if (w < 0.0) {
+					throw new IllegalArgumentException("Negative edge weight");
+				}
+				if (w > maxWeight) maxWeight = w;
+			}
+		}
+		// a relaxation from bucket i reaches at most bucket i + maxWeight / delta,
+		// so the buckets can be kept in a cyclic array
+		final double SPAN = Math.floor(maxWeight / delta) + 2.0;
+		if (SPAN > MAX_BUCKETS) {
+			throw new IllegalArgumentException("Bucket width too small for edge weights");
+		}
+		final int SLOTS = (int) SPAN;
+		IntBuffer[] buckets = new IntBuffer[SLOTS];
+
+		// non-negative doubles order as their bits, so distances are relaxed by CAS on the bits
+		AtomicLongArray dist = new AtomicLongArray(VERTICES);
+		for (u = 0; u < VERTICES; ++u) {
+			dist.set(u, INFINITY);
+		}
+		dist.set(s, 0L);
+		// vertices whose distance changed during the current relaxation step
+		AtomicIntegerArray changedIn = new AtomicIntegerArray(VERTICES);
+		int[] changed = new int[VERTICES];
+		AtomicInteger tail = new AtomicInteger();
+		// marks for removing duplicates from the frontier and from removed
+		int[] inFrontier = new int[VERTICES];
+		int[] inRemoved = new int[VERTICES];
+		int[] frontier = new int[VERTICES];
+		IntBuffer removed = new IntBuffer(VERTICES);
+		int step = 0, phase = 0, size, count;
+		long pending = 1L;
+		buckets[0] = new IntBuffer(VERTICES);
+		buckets[0].add(s);
+
+		for (long i = 0L; pending > 0L; ++i) {
+			IntBuffer bucket = buckets[(int) (i % SLOTS)];
+			if (bucket == null || bucket.size() == 0) continue;
+			++phase;
+			removed.clear();
+			while (bucket.size() > 0) {
+				// entries left behind by vertices that moved to a lower bucket are skipped
+				++step;
+				size = 0;
+				for (k = 0; k < bucket.size(); ++k) {
+					u = bucket.get(k);
+					if (inFrontier[u] != step && bucketOf(dist.get(u), delta) == i) {
+						inFrontier[u] = step;
+						frontier[size++] = u;
+						if (inRemoved[u] != phase) {
+							inRemoved[u] = phase;
+							removed.add(u);
+						}
+					}
+				}
+				pending -= bucket.size();
+				bucket.clear();
+				tail.set(0);
+				pool.invoke(new Relax(g, dist, delta, true, frontier, 0, size, changedIn, step,
+						changed, tail, threshold));
+				pending += insert(buckets, changed, tail.get(), dist, delta);
+			}
+			// heavy edges cannot lead back into bucket i
+			++step;
+			count = removed.size();
+			for (k = 0; k < count; ++k) {
+				frontier[k] = removed.get(k);
+			}
+			tail.set(0);
+			pool.invoke(new Relax(g, dist, delta, false, frontier, 0, count, changedIn, step,
+					changed, tail, threshold));
+			pending += insert(buckets, changed, tail.get(), dist, delta);
+		}
+		for (u = 0; u < VERTICES; ++u) {
+			distance[u] = Double.longBitsToDouble(dist.get(u));
+		}
+		buildTree(g, s, distance, parent, frontier);
+	}
+
+	private static long bucketOf(long bits, double delta) {
+		return (long) (Double.longBitsToDouble(bits) / delta);
+	}
+
+	// puts each of the count changed vertices into the bucket of its distance
+	private static int insert(IntBuffer[] buckets, int[] changed, int count, AtomicLongArray dist,
+			double delta) {
+		int slot, v;
+		for (int k = 0; k < count; ++k) {
+			v = changed[k];
+			slot = (int) (bucketOf(dist.get(v), delta) % buckets.length);
+			if (buckets[slot] == null) buckets[slot] = new IntBuffer(16);
+			buckets[slot].add(v);
+		}
+		return count;
+	}
+
+	/**
+	 * Gives each reached vertex other than s as parent a vertex from
+	 * which an edge leads to it with distance[u] + w == distance[v].
+	 * Such tight edges are followed breadth-first from s, so the parents
+	 * form a tree even where there are edges of weight 0.
+	 * @param queue Work space, length g.vertices()
+	 */
+	private static void buildTree(WeightedAdjacency g, int s, double[] distance, int[] parent,
+			int[] queue) {
+		final int VERTICES = g.vertices();
+		int u, v, a, head = 0, tail = 0;
+		for (u = 0; u < VERTICES; ++u) {
+			parent[u] = Graph.NIL_VERTEX;
+		}
+		queue[tail++] = s;
+		while (head < tail) {
+			u = queue[head++];
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				v = g.target(u, a);
+				if (v != s && parent[v] == Graph.NIL_VERTEX
+						&& distance[u] + g.weight(u, a) == distance[v]) {
+					parent[v] = u;
+					queue[tail++] = v;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Relaxes the light (or heavy) edges of frontier[lo] through
+	 * frontier[hi - 1]. The first task to lower the distance of a vertex
+	 * during step appends it to changed.
+	 */
+	private static class Relax extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final WeightedAdjacency g;
+		private final AtomicLongArray dist;
+		private final double delta;
+		private final boolean light;
+		private final int[] frontier;
+		private final int lo;
+		private final int hi;
+		private final AtomicIntegerArray changedIn;
+		private final int step;
+		private final int[] changed;
+		private final AtomicInteger tail;
+		private final int threshold;
+
+		Relax(WeightedAdjacency _g, AtomicLongArray _dist, double _delta, boolean _light,
+				int[] _frontier, int _lo, int _hi, AtomicIntegerArray _changedIn, int _step,
+				int[] _changed, AtomicInteger _tail, int _threshold) {
+			g = _g;
+			dist = _dist;
+			delta = _delta;
+			light = _light;
+			frontier = _frontier;
+			lo = _lo;
+			hi = _hi;
+			changedIn = _changedIn;
+			step = _step;
+			changed = _changed;
+			tail = _tail;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Relax(g, dist, delta, light, frontier, lo, mid, changedIn, step,
+								changed, tail, threshold),
+						new Relax(g, dist, delta, light, frontier, mid, hi, changedIn, step,
+								changed, tail, threshold));
+				return;
+			}
+			IntBuffer lowered = new IntBuffer(hi - lo);
+			int i, u, v, a;
+			long d, old;
+			double du, w;
+			for (i = lo; i < hi; ++i) {
+				u = frontier[i];
+				du = Double.longBitsToDouble(dist.get(u));
+				for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+					w = g.weight(u, a);
+					if ((w <= delta) != light) continue;
+					v = g.target(u, a);
+					d = Double.doubleToLongBits(du + w);
+					// Relax (CLRS, p. 649) as an atomic minimum
+					old = dist.get(v);
+					while (d < old && !dist.compareAndSet(v, old, d)) {
+						old = dist.get(v);
+					}
+					if (d < old && changedIn.getAndSet(v, step) != step) {
+						lowered.add(v);
+					}
+				}
+			}
+			lowered.copyTo(changed, tail);
+		}
+	}
+}
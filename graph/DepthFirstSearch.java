@@ -0,0 +1,258 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Depth-first search (CLRS, p. 604) of a whole Adjacency view, keeping
+ * all of its state in arrays that belong to the call, so that the graph
+ * is only read. The search is iterative, as in the depthFirstSearch()
+ * methods of the graphs, and can classify every arc as a tree, back,
+ * forward or cross edge (CLRS, p. 609) by the discovery times.
+ * Arcs are identified by position: the arcs of u come in the order of
+ * g after those of all vertices before u.
+ * Vertices are internal (no offset).
+ * @author Marshall Farrier
+ *
+ */
+final class DepthFirstSearch {
+	// lists longer than this are sorted by Arrays.sort() rather than insertion sort
+	private static final int INSERTION_SORT_MAX = 16;
+	private static final long LOW_BITS = 0xffffffffL;
+
+	private DepthFirstSearch() {}
+
+	/**
+	 * Number of arcs of g, which is the length of an array of edge types
+	 * @param g
+	 * @return
+	 */
+	static int arcs(Adjacency g) {
+		final int VERTICES = g.vertices();
+		int result = 0;
+		for (int u = 0; u < VERTICES; ++u) {
+			result += g.outDegree(u);
+		}
+		return result;
+	}
+
+	/**
+	 * Searches g, starting a new tree from each vertex of roots in turn
+	 * that has not yet been discovered
+	 * @param g
+	 * @param roots Vertices in the order in which to start trees, or null
+	 * for the order 0, 1, ...
+	 * @param rank If not null, the arcs of each vertex are explored in
+	 * ascending order of rank[target], those of equal rank keeping the
+	 * order of g, as if each adjacency list had been sorted by rank
+	 * @param discovery Filled in with discovery times, which start at 1
+	 * @param finish Filled in with finishing times
+	 * @param parent Filled in with the parents in the depth-first forest,
+	 * NIL_VERTEX for the roots of its trees
+	 * @param tree Filled in with the number of the tree of each vertex,
+	 * counting from 0
+	 * @param edgeType If not null, filled in with the type of each arc,
+	 * by position, as one of the edge types of Graph. An arc to a gray
+	 * vertex is a back edge, except that in an undirected graph the arc
+	 * from a vertex back to its parent is the tree edge seen from the other
+	 * end. In a directed graph an arc to a black vertex is a forward edge
+	 * if that vertex was discovered later, and a cross edge otherwise. In
+	 * an undirected graph it leads to a finished descendant and is the back
+	 * edge seen from the other end, as there are only tree and back edges
+	 * (CLRS, theorem 22.10).
+	 * @return Number of trees in the forest
+	 */
+	static int search(Adjacency g, int[] roots, int[] rank, int[] discovery, int[] finish,
+			int[] parent, int[] tree, byte[] edgeType) {
+		final int VERTICES = g.vertices();
+		final boolean DIRECTED = g.directed();
+		// the arcs of u are at positions first[u] through first[u + 1] - 1
+		int[] first = new int[VERTICES + 1];
+		int u, v, w, i, a, p, end, top, time = 0, treeNum = 0;
+		for (u = 0; u < VERTICES; ++u) {
+			first[u + 1] = first[u] + g.outDegree(u);
+		}
+		// targetAt[i] is the target of the i-th arc explored, and positionAt[i] its position
+		int[] targetAt = new int[first[VERTICES]];
+		int[] positionAt = null;
+		for (u = 0; u < VERTICES; ++u) {
+			i = first[u];
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				targetAt[i++] = g.target(u, a);
+			}
+		}
+		if (rank != null) {
+			positionAt = new int[targetAt.length];
+			for (i = 0; i < positionAt.length; ++i) {
+				positionAt[i] = i;
+			}
+			int maxDegree = 0;
+			for (u = 0; u < VERTICES; ++u) {
+				maxDegree = Math.max(maxDegree, first[u + 1] - first[u]);
+			}
+			// scratch space for the longest lists
+			long[] keys = maxDegree > INSERTION_SORT_MAX ? new long[maxDegree] : null;
+			int[] targets = maxDegree > INSERTION_SORT_MAX ? new int[maxDegree] : null;
+			for (u = 0; u < VERTICES; ++u) {
+				if (first[u + 1] - first[u] <= INSERTION_SORT_MAX) {
+					insertionSort(targetAt, positionAt, first[u], first[u + 1], rank);
+				}
+				else {
+					packedSort(targetAt, positionAt, first[u], first[u + 1], rank, keys, targets);
+				}
+			}
+		}
+		Arrays.fill(discovery, 0);
+		Arrays.fill(finish, 0);
+		Arrays.fill(parent, Graph.NIL_VERTEX);
+		// the gray vertices, and for each the next of its arcs to explore
+		int[] stack = new int[VERTICES];
+		int[] cursor = new int[VERTICES];
+		for (int k = 0; k < VERTICES; ++k) {
+			u = roots == null ? k : roots[k];
+			if (discovery[u] != 0) continue;
+			top = 0;
+			stack[0] = u;
+			cursor[u] = first[u];
+			discovery[u] = ++time;
+			tree[u] = treeNum;
+			while (top >= 0) {
+				v = stack[top];
+				end = first[v + 1];
+				for (i = cursor[v]; i < end; ++i) {
+					w = targetAt[i];
+					if (discovery[w] == 0) break;
+					if (edgeType == null) continue;
+					p = positionAt == null ? i : positionAt[i];
+					if (finish[w] == 0) {
+						edgeType[p] = (byte) (DIRECTED || parent[v] != w ? Graph.BACK_EDGE : Graph.TREE_EDGE);
+					}
+					else if (!DIRECTED) {
+						edgeType[p] = Graph.BACK_EDGE;
+					}
+					else {
+						edgeType[p] = (byte) (discovery[v] < discovery[w] ? Graph.FORWARD_EDGE : Graph.CROSS_EDGE);
+					}
+				}
+				if (i < end) {
+					if (edgeType != null) edgeType[positionAt == null ? i : positionAt[i]] = Graph.TREE_EDGE;
+					cursor[v] = i + 1;
+					w = targetAt[i];
+					parent[w] = v;
+					discovery[w] = ++time;
+					tree[w] = treeNum;
+					cursor[w] = first[w];
+					stack[++top] = w;
+				}
+				else {
+					finish[v] = ++time;
+					--top;
+				}
+			}
+			++treeNum;
+		}
+		return treeNum;
+	}
+
+	/**
+	 * The result graph of the depthFirstSearch() methods, found by
+	 * search(): an undirected LinkedListGraph holding the edges of the
+	 * depth-first forest, inserted in order of discovery, with the data
+	 * fields COLOR, which is BLACK for every vertex, PARENT,
+	 * DISCOVERY_TIME, FINISH_TIME and, if treeNumbers is true, TREE_NUMBER
+	 * @param owner The graph of which g is a view
+	 * @param g
+	 * @param roots As for search()
+	 * @param rank As for search()
+	 * @param treeNumbers
+	 * @return
+	 */
+	static LinkedListGraph forest(AbstractGraph owner, Adjacency g, int[] roots, int[] rank,
+			boolean treeNumbers) {
+		final int VERTICES = g.vertices();
+		int[] discovery = new int[VERTICES];
+		int[] finish = new int[VERTICES];
+		int[] parent = new int[VERTICES];
+		int[] tree = new int[VERTICES];
+		search(g, roots, rank, discovery, finish, parent, tree, null);
+		return forest(owner.offset(), discovery, finish, parent, treeNumbers ? tree : null);
+	}
+
+	/**
+	 * The same graph, built from the arrays filled in by search()
+	 * @param offset Offset of the graph searched
+	 * @param discovery
+	 * @param finish
+	 * @param parent
+	 * @param tree The tree numbers, or null to leave out TREE_NUMBER
+	 * @return
+	 */
+	static LinkedListGraph forest(char offset, int[] discovery, int[] finish, int[] parent,
+			int[] tree) {
+		final int VERTICES = discovery.length;
+		final boolean TREE_NUMBERS = tree != null;
+		LinkedListGraph result = new LinkedListGraph(VERTICES, false, offset,
+				TREE_NUMBERS ? 5 : 4);
+		result.setDataFieldLabel(Graph.COLOR, 'c');
+		result.setDataFieldLabel(Graph.PARENT, 'p');
+		result.setDataFieldLabel(Graph.DISCOVERY_TIME, 'd');
+		result.setDataFieldLabel(Graph.FINISH_TIME, 'f');
+		if (TREE_NUMBERS) result.setDataFieldLabel(Graph.TREE_NUMBER, 't');
+		// vertices by discovery time, the times running from 1 to 2V
+		int[] discovered = new int[2 * VERTICES + 1];
+		Arrays.fill(discovered, Graph.NIL_VERTEX);
+		int v, t;
+		for (v = 0; v < VERTICES; ++v) {
+			discovered[discovery[v]] = v;
+			result.setData(v, Graph.COLOR, Graph.BLACK);
+			result.setData(v, Graph.PARENT, parent[v]);
+			result.setData(v, Graph.DISCOVERY_TIME, discovery[v]);
+			result.setData(v, Graph.FINISH_TIME, finish[v]);
+			if (TREE_NUMBERS) result.setData(v, Graph.TREE_NUMBER, tree[v]);
+		}
+		for (t = 1; t < discovered.length; ++t) {
+			v = discovered[t];
+			if (v != Graph.NIL_VERTEX && parent[v] != Graph.NIL_VERTEX) {
+				result.uncheckedInsert(parent[v], v);
+			}
+		}
+		return result;
+	}
+
+	// stable sort of targetAt[lo] through targetAt[hi - 1] by rank, moving positionAt along
+	private static void insertionSort(int[] targetAt, int[] positionAt, int lo, int hi, int[] rank) {
+		int i, j, target, position;
+		for (i = lo + 1; i < hi; ++i) {
+			target = targetAt[i];
+			position = positionAt[i];
+			for (j = i - 1; j >= lo && rank[targetAt[j]] > rank[target]; --j) {
+				targetAt[j + 1] = targetAt[j];
+				positionAt[j + 1] = positionAt[j];
+			}
+			targetAt[j + 1] = target;
+			positionAt[j + 1] = position;
+		}
+	}
+
+	/**
+	 * The same sort, on keys packing the rank with the index in the list,
+	 * for lists still in the order of g
+	 */
+	private static void packedSort(int[] targetAt, int[] positionAt, int lo, int hi, int[] rank,
+			long[] keys, int[] targets) {
+		final int SIZE = hi - lo;
+		int i, j;
+		for (i = 0; i < SIZE; ++i) {
+			targets[i] = targetAt[lo + i];
+			keys[i] = ((long) rank[targets[i]] << 32) | i;
+		}
+		Arrays.sort(keys, 0, SIZE);
+		for (i = 0; i < SIZE; ++i) {
+			j = (int) (keys[i] & LOW_BITS);
+			targetAt[lo + i] = targets[j];
+			positionAt[lo + i] = lo + j;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Discovery and finishing times, parents and tree numbers from a
+ * depth-first search (CLRS, p. 604), without the result graph built by
+ * depthFirstSearch(), which forest() builds only when asked.
+ * Vertices are given and returned with the offset of the graph searched.
+ * @author Marshall Farrier
+ *
+ */
+public class DfsResult {
+	private final char offset;
+	private final int trees;
+	// no offset in any of the arrays
+	private final int[] discovery;
+	private final int[] finish;
+	private final int[] parent;
+	private final int[] tree;
+	// built on first call to forest()
+	private LinkedListGraph forest;
+
+	/**
+	 * The arrays are not copied.
+	 * @param g The graph searched
+	 * @param _trees Number of trees in the forest
+	 * @param _discovery Discovery times, from 1
+	 * @param _finish Finishing times, up to 2V
+	 * @param _parent NIL_VERTEX for the roots of the trees
+	 * @param _tree Tree numbers, from 0 in the order in which the trees were started
+	 */
+	DfsResult(AbstractGraph g, int _trees, int[] _discovery, int[] _finish, int[] _parent,
+			int[] _tree) {
+		offset = g.offset();
+		trees = _trees;
+		discovery = _discovery;
+		finish = _finish;
+		parent = _parent;
+		tree = _tree;
+	}
+
+	public int vertices() { return discovery.length; }
+
+	/**
+	 * Number of trees in the depth-first forest
+	 * @return
+	 */
+	public int trees() { return trees; }
+
+	public int discoveryTime(int _v) {
+		return discovery[vertex(_v)];
+	}
+
+	public int finishTime(int _v) {
+		return finish[vertex(_v)];
+	}
+
+	/**
+	 * Returns Graph.NIL_VERTEX for the roots of the trees
+	 * @param _v
+	 * @return
+	 */
+	public int parent(int _v) {
+		int p = parent[vertex(_v)];
+		return p == Graph.NIL_VERTEX ? p : p + offset;
+	}
+
+	public int treeNumber(int _v) {
+		return tree[vertex(_v)];
+	}
+
+	/**
+	 * Whether _u is an ancestor of _v in the depth-first forest, or _v
+	 * itself, by the parenthesis theorem (CLRS, p. 606)
+	 * @param _u
+	 * @param _v
+	 * @return
+	 */
+	public boolean isAncestor(int _u, int _v) {
+		int u = vertex(_u), v = vertex(_v);
+		return discovery[u] <= discovery[v] && finish[v] <= finish[u];
+	}
+
+	/**
+	 * The vertices of the path in the depth-first forest from the root
+	 * of the tree of _v to _v, beginning with the root and ending with _v
+	 * @param _v
+	 * @return
+	 */
+	public int[] pathTo(int _v) {
+		int v = vertex(_v);
+		int length = 1, u;
+		for (u = v; parent[u] != Graph.NIL_VERTEX; u = parent[u]) {
+			++length;
+		}
+		int[] result = new int[length];
+		for (u = v; length > 0; u = parent[u]) {
+			result[--length] = u + offset;
+		}
+		return result;
+	}
+
+	/**
+	 * The depth-first forest as the result graph of
+	 * depthFirstSearch(int, int, boolean), with the data fields COLOR,
+	 * PARENT, DISCOVERY_TIME, FINISH_TIME and TREE_NUMBER, built on the
+	 * first call. The same graph is returned on later calls, so it should
+	 * not be modified.
+	 * @return
+	 */
+	public synchronized LinkedListGraph forest() {
+		if (forest == null) {
+			forest = DepthFirstSearch.forest(offset, discovery, finish, parent, tree);
+		}
+		return forest;
+	}
+
+	private int vertex(int _v) {
+		int v = _v - offset;
+		if (v < 0 || discovery.length <= v) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return v;
+	}
+}
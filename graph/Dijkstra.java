@@ -0,0 +1,68 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Dijkstra's algorithm (CLRS, p. 658) over a WeightedAdjacency view,
+ * shared by the weighted graph representations.
+ * Vertices are internal (no offset).
+ * @author Marshall Farrier
+ *
+ */
+final class Dijkstra {
+	// passed as target to search all vertices
+	static final int ALL = -1;
+
+	private Dijkstra() {}
+
+	/**
+	 * Shortest paths from s using an IndexedMinHeap, in time O(E lg V).
+	 * Vertices enter the heap only when first reached.
+	 * If t is not ALL, the search stops as soon as t is settled, and
+	 * only the distances of settled vertices (those no farther than t)
+	 * are final.
+	 * Throws an IllegalArgumentException on reaching an edge
+	 * of negative weight.
+	 * @param g
+	 * @param s
+	 * @param t Target or ALL
+	 * @param distance Filled in by the search, length g.vertices()
+	 * @param parent Filled in by the search, length g.vertices()
+	 * @param q Empty heap of capacity g.vertices(), which is empty again
+	 * on return and so can be reused
+	 */
+	static void search(WeightedAdjacency g, int s, int t, double[] distance, int[] parent,
+			IndexedMinHeap q) {
+		final int VERTICES = g.vertices();
+		int u, v, a;
+		double w, d;
+		for (u = 0; u < VERTICES; ++u) {
+			distance[u] = Double.POSITIVE_INFINITY;
+			parent[u] = Graph.NIL_VERTEX;
+		}
+		distance[s] = 0.0;
+		q.insert(s, 0.0);
+		while (!q.isEmpty()) {
+			u = q.poll();
+			if (u == t) {
+				q.clear();
+				return;
+			}
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				w = g.weight(u, a);
+				if (w < 0.0) {
+					throw new IllegalArgumentException("Negative edge weight");
+				}
+				v = g.target(u, a);
+				d = distance[u] + w;
+				// Relax (CLRS, p. 649)
+				if (d < distance[v]) {
+					distance[v] = d;
+					parent[v] = u;
+					q.offer(v, d);
+				}
+			}
+		}
+	}
+}
@@ -5,37 +5,20 @@ package graph;
 
 /**
  * Implements operations of CLRS, ch. 21
- * using linked list representation presented in 21.2
- * (not the faster but more complicated technique of 21.4).
- * Used for Kruskal's algorithm.
- * 
+ * using the disjoint-set forest of 21.3, with union by rank
+ * and path compression.
+ * Elements are the integers 0 through size() - 1.
+ * Used for Kruskal's algorithm and for connectivity queries.
+ *
  * @author Marshall Farrier
  * @date 11/21/10
  *
  */
-class DisjointSet {
-
-	private final int NIL = -1;
-	private class Node {
-		int next;
-		int head;
-		/**
-		 * tail and setSize will in general only be accurate for the 
-		 * representative / head element of each set so that we only 
-		 * have to update one element on union operations
-		 */
-		int tail;		
-		int setSize;
-		Node() {
-			next = NIL;
-			head = NIL;
-			tail = NIL;
-			setSize = NIL;
-		}
-	}
+public class DisjointSet {
+	private int [] parent;
+	private int [] rank;
+	private int sets;
 
-	private Node [] sets;
-	
 	/**
 	 * The constructor obviates the makeSet() operation
 	 * by creating size disjoint sets with 1 member each
@@ -45,21 +28,41 @@ class DisjointSet {
 		if (size < 0) {
 			throw new IllegalArgumentException("Set cannot have negative size");
 		}
-		sets = new Node[size];
+		parent = new int[size];
+		rank = new int[size];
 		for (int i = 0; i < size; ++i) {
-			sets[i] = new Node();
-			sets[i].next = NIL;
-			sets[i].head = i;
-			sets[i].tail = i;
-			sets[i].setSize = 1;
+			parent[i] = i;
 		}
+		sets = size;
 	}
-	
+
+	/**
+	 * CLRS, p. 571
+	 * Returns the representative of the set containing i.
+	 * Every element on the path to the root is made to point
+	 * directly to the root. The path is traversed twice rather
+	 * than recursively so that long paths cannot overflow the stack.
+	 * @param i
+	 * @return
+	 */
 	public int findSet(int i) {
-		return sets[i].head;
+		if (i < 0 || parent.length <= i) {
+			throw new IllegalArgumentException("Invalid element");
+		}
+		int root = i, next;
+		while (parent[root] != root) {
+			root = parent[root];
+		}
+		while (parent[i] != root) {
+			next = parent[i];
+			parent[i] = root;
+			i = next;
+		}
+		return root;
 	}
-	
+
 	/**
+	 * CLRS, p. 571
 	 * Returns false if the 2 sets are already identical.
 	 * Returns true and performs the union if the sets are distinct.
 	 * @param i
@@ -69,26 +72,26 @@ class DisjointSet {
 	public boolean union(int i, int j) {
 		int first = findSet(i);
 		int second = findSet(j);
-		int tmp;
 		if (first == second) return false;
-		// make first the larger set
-		if (sets[first].setSize < sets[second].setSize) {
-			tmp = first;
-			first = second;
-			second = tmp;
+		// link the root of lower rank under the root of higher rank
+		if (rank[first] < rank[second]) {
+			parent[first] = second;
 		}
-		// connect the tail element of first set to head element of second
-		sets[sets[first].tail].next = second; 
-		// make first the rep of all elements in second
-		tmp = second;
-		while (sets[tmp].next != NIL) {
-			sets[tmp].head = first;
-			tmp = sets[tmp].next;
+		else {
+			parent[second] = first;
+			if (rank[first] == rank[second]) ++rank[first];
 		}
-		// while loop does not set head for last element of second set
-		sets[tmp].head = first;
-		sets[first].setSize += sets[second].setSize;
-		return true;		
+		--sets;
+		return true;
+	}
+
+	public boolean connected(int i, int j) {
+		return findSet(i) == findSet(j);
 	}
 
+	// number of elements
+	public int size() { return parent.length; }
+
+	// number of disjoint sets
+	public int sets() { return sets; }
 }
@@ -0,0 +1,47 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * The edges of a WeightedAdjacency view as parallel arrays of
+ * primitives, for the minimum spanning tree algorithms that work on
+ * the whole edge list. Edges are in order of their source vertex and
+ * then of their arcs, and an undirected edge appears once, from its
+ * lower vertex, which is the order of getWeightedEdges(). So the
+ * position of an edge here is its position in that array.
+ * Vertices are internal (no offset).
+ * @author Marshall Farrier
+ *
+ */
+final class EdgeArrays {
+	final int[] from;
+	final int[] to;
+	final double[] weight;
+
+	EdgeArrays(WeightedAdjacency g) {
+		final int VERTICES = g.vertices();
+		final boolean DIRECTED = g.directed();
+		int size = 0, u, v, a;
+		for (u = 0; u < VERTICES; ++u) {
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				if (DIRECTED || u < g.target(u, a)) ++size;
+			}
+		}
+		from = new int[size];
+		to = new int[size];
+		weight = new double[size];
+		size = 0;
+		for (u = 0; u < VERTICES; ++u) {
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				v = g.target(u, a);
+				if (!DIRECTED && v <= u) continue;
+				from[size] = u;
+				to[size] = v;
+				weight[size++] = g.weight(u, a);
+			}
+		}
+	}
+
+	int size() { return from.length; }
+}
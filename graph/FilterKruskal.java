@@ -0,0 +1,171 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Minimum spanning forest by Filter-Kruskal (Osipov, Sanders and
+ * Singler, "The filter-Kruskal minimum spanning tree algorithm", 2009)
+ * over EdgeArrays, edges being taken as undirected.
+ * The edges are partitioned around a pivot, the lighter part is solved
+ * first, and the edges of the heavier part that already join vertices
+ * of one tree are dropped before it is solved in turn, so that heavy
+ * edges that cannot be in the forest are mostly never sorted.
+ * Parts small enough are solved by Kruskal's algorithm, sorting the
+ * edges with Arrays.parallelSort() on long keys that pack the order of
+ * the weight with the position of the edge. Edges are ordered by weight
+ * and then by position, so the forest is the one
+ * WeightedLinkedListGraph.minSpanningTreeKruskal() gives with its
+ * stable sort. Vertices are internal (no offset).
+ * @author Marshall Farrier
+ *
+ */
+final class FilterKruskal {
+	// parts of at most this many edges, or of at most V, are sorted rather than partitioned
+	private static final int MIN_BASE = 1 << 12;
+	private static final long LOW_BITS = 0xffffffffL;
+	private static final long SIGN_BIT = 0x80000000L;
+
+	private final EdgeArrays edges;
+	private final DisjointSet sets;
+	// positions of the edges, reordered by partitioning
+	private final int[] list;
+	private final int base;
+	private final long[] keys;
+	private final int[] tree;
+	private int treeSize;
+
+	private FilterKruskal(int vertices, EdgeArrays _edges) {
+		edges = _edges;
+		sets = new DisjointSet(vertices);
+		list = new int[edges.size()];
+		for (int e = 0; e < list.length; ++e) {
+			list[e] = e;
+		}
+		base = Math.max(vertices, MIN_BASE);
+		keys = new long[Math.min(list.length, base)];
+		tree = new int[Math.max(vertices - 1, 0)];
+	}
+
+	/**
+	 * Minimum spanning forest of the graph with the given edges
+	 * @param vertices
+	 * @param edges
+	 * @return Positions in edges of the edges of the forest, in ascending order
+	 */
+	static int[] search(int vertices, EdgeArrays edges) {
+		FilterKruskal f = new FilterKruskal(vertices, edges);
+		f.solve(0, f.list.length);
+		int[] result = Arrays.copyOf(f.tree, f.treeSize);
+		Arrays.sort(result);
+		return result;
+	}
+
+	// adds to the forest the edges of the forest among list[lo] through list[hi - 1]
+	private void solve(int lo, int hi) {
+		int mid, pivot;
+		// recursion is on the lighter part only, the heavier part being taken by the loop
+		while (sets.sets() > 1) {
+			if (hi - lo <= base) {
+				kruskal(lo, hi);
+				return;
+			}
+			pivot = medianOfThree(list[lo], list[(lo + hi) >>> 1], list[hi - 1]);
+			mid = partition(lo, hi, pivot);
+			solve(lo, mid);
+			lo = mid;
+			hi = filter(mid, hi);
+		}
+	}
+
+	// true iff edge e comes before edge f: lighter, or as heavy and at a lower position
+	private boolean before(int e, int f) {
+		return edges.weight[e] < edges.weight[f] || (edges.weight[e] == edges.weight[f] && e < f);
+	}
+
+	private int medianOfThree(int a, int b, int c) {
+		if (before(a, b)) {
+			if (before(b, c)) return b;
+			return before(a, c) ? c : a;
+		}
+		if (before(a, c)) return a;
+		return before(b, c) ? c : b;
+	}
+
+	/**
+	 * Moves the edges among list[lo] through list[hi - 1] that are not
+	 * after pivot to the front. As pivot is the median of three of them,
+	 * both parts are nonempty.
+	 * @return The start of the heavier part
+	 */
+	private int partition(int lo, int hi, int pivot) {
+		int i = lo, j = hi - 1, tmp;
+		while (true) {
+			while (i <= j && !before(pivot, list[i])) ++i;
+			while (i <= j && before(pivot, list[j])) --j;
+			if (i > j) return i;
+			tmp = list[i];
+			list[i++] = list[j];
+			list[j--] = tmp;
+		}
+	}
+
+	/**
+	 * Drops the edges among list[lo] through list[hi - 1] whose ends are
+	 * already in one tree
+	 * @return The end of the edges kept, which start at lo
+	 */
+	private int filter(int lo, int hi) {
+		int kept = lo, i, e;
+		for (i = lo; i < hi; ++i) {
+			e = list[i];
+			if (sets.findSet(edges.from[e]) != sets.findSet(edges.to[e])) list[kept++] = e;
+		}
+		return kept;
+	}
+
+	// Kruskal's algorithm (CLRS, p. 631) on list[lo] through list[hi - 1]
+	private void kruskal(int lo, int hi) {
+		final int SIZE = hi - lo;
+		int i, j, e;
+		// high half of the order of the weight, then the position
+		for (i = 0; i < SIZE; ++i) {
+			e = list[lo + i];
+			keys[i] = (order(edges.weight[e]) & ~LOW_BITS) | e;
+		}
+		Arrays.parallelSort(keys, 0, SIZE);
+		// edges whose weights agree in the high half are sorted again on the low half
+		for (i = 0; i < SIZE; i = j) {
+			for (j = i + 1; j < SIZE && (keys[j] ^ keys[i]) >>> 32 == 0; ++j);
+			if (j - i > 1) sortByLowHalf(i, j);
+		}
+		for (i = 0; i < SIZE && sets.sets() > 1; ++i) {
+			e = (int) keys[i];
+			if (sets.union(edges.from[e], edges.to[e])) tree[treeSize++] = e;
+		}
+	}
+
+	private void sortByLowHalf(int lo, int hi) {
+		int i, e;
+		boolean same = true;
+		for (i = lo; i < hi; ++i) {
+			e = (int) keys[i];
+			// flipping the sign bit makes the signed order of the low half its unsigned order
+			keys[i] = (((order(edges.weight[e]) & LOW_BITS) ^ SIGN_BIT) << 32) | e;
+			if (keys[i] >>> 32 != keys[lo] >>> 32) same = false;
+		}
+		// equal weights are already in order of position
+		if (!same) Arrays.sort(keys, lo, hi);
+	}
+
+	/**
+	 * A long whose signed order is the order of the weights, -0.0 and
+	 * 0.0 being taken as equal
+	 */
+	private static long order(double w) {
+		long bits = Double.doubleToLongBits(w + 0.0);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+}
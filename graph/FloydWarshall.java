@@ -0,0 +1,268 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Floyd-Warshall algorithm (CLRS, p. 695) on a flat n x n distance
+ * matrix, in which the entry for (i, j) is at i * n + j.
+ * The matrix is processed in square tiles of TILE vertices (Venkataraman
+ * et al., "A blocked all-pairs shortest-paths algorithm", 2003).
+ * For each diagonal tile kk, the tile itself is updated first, then the
+ * other tiles of row kk and column kk, which depend only on it, and
+ * then all remaining tiles, which depend only on row kk and column kk.
+ * The tiles of the last two steps are updated in parallel.
+ * Next hops are not tracked through the updates, where rounding can make
+ * a path through a cycle of weight 0 look shorter and leave next hops
+ * going round it. They are found afterwards by nextHops(), from the
+ * final distances.
+ * @author Marshall Farrier
+ *
+ */
+final class FloydWarshall {
+	// 3 tiles of doubles fit in a typical L2 cache
+	static final int TILE = 64;
+
+	private FloydWarshall() {}
+
+	/**
+	 * Fills in the matrix for the edges of g: distance 0 from each
+	 * vertex to itself, the weight of the lightest edge where there is
+	 * one, and Double.POSITIVE_INFINITY elsewhere
+	 * @param g
+	 * @param distance Length g.vertices() squared
+	 */
+	static void initialize(WeightedAdjacency g, double[] distance) {
+		final int VERTICES = g.vertices();
+		int u, v, a, row;
+		double w;
+		for (u = 0; u < VERTICES; ++u) {
+			row = u * VERTICES;
+			for (v = 0; v < VERTICES; ++v) {
+				distance[row + v] = Double.POSITIVE_INFINITY;
+			}
+			distance[row + u] = 0.0;
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				v = g.target(u, a);
+				w = g.weight(u, a);
+				if (w < distance[row + v]) distance[row + v] = w;
+			}
+		}
+	}
+
+	/**
+	 * Shortest path weights between all pairs of vertices, in time O(n^3).
+	 * Throws an IllegalStateException if there is a cycle of negative weight.
+	 * @param distance Initialized, and replaced by the shortest path weights
+	 * @param n
+	 * @param pool
+	 */
+	static void search(double[] distance, int n, ForkJoinPool pool) {
+		final int TILES = (n + TILE - 1) / TILE;
+		for (int kk = 0; kk < TILES; ++kk) {
+			relax(distance, n, kk, kk, kk);
+			if (TILES > 1) {
+				// 2 (TILES - 1) tiles in row kk and column kk
+				pool.invoke(new Tiles(distance, n, kk, true, 0, 2 * (TILES - 1)));
+				pool.invoke(new Tiles(distance, n, kk, false, 0, (TILES - 1) * (TILES - 1)));
+			}
+		}
+		for (int i = 0; i < n; ++i) {
+			if (distance[i * n + i] < 0.0) {
+				throw new IllegalStateException("Graph contains a negative cycle");
+			}
+		}
+	}
+
+	/**
+	 * Replaces next by the next hops of a shortest path tree towards each
+	 * vertex t, found from the final distances in time O(n^2 + E) per t.
+	 * An arc (u, x) of weight w is given the reduced weight
+	 * w + distance(x, t) - distance(u, t), which is 0 on a shortest path
+	 * and positive off one, save for rounding, and is taken as 0 when
+	 * rounding makes it negative. Dijkstra's algorithm (CLRS, p. 658) on
+	 * the reversed arcs from t then reaches every vertex with a path to t
+	 * and, as it builds a tree, records next hops that cannot go round a
+	 * cycle. Its queue is an IndexedMinHeap if g is sparse enough for
+	 * that to be faster, and otherwise a scan of an array, which takes
+	 * O(n^2) time per tree whatever the number of edges. The trees for
+	 * different targets are built in parallel in pool.
+	 * @param g
+	 * @param distance Shortest path weights found by search()
+	 * @param next Replaced by the second vertex of a shortest path,
+	 * NIL_VERTEX where there is none
+	 * @param pool
+	 */
+	static void nextHops(WeightedAdjacency g, double[] distance, int[] next, ForkJoinPool pool) {
+		final int VERTICES = g.vertices();
+		final int LG = 32 - Integer.numberOfLeadingZeros(VERTICES);
+		final boolean HEAP = (long) DepthFirstSearch.arcs(g) * LG < (long) VERTICES * VERTICES;
+		pool.invoke(new Trees(g.reverse(), distance, next, HEAP, 0, VERTICES));
+	}
+
+	/**
+	 * Updates tile (ii, jj) with paths through the vertices of tile kk.
+	 * With k outermost, this is correct also when (ii, jj) is in row
+	 * or column kk and so changes along with the entries it reads.
+	 * Each row is updated by a loop over contiguous entries without
+	 * branches, which the compiler can vectorize.
+	 */
+	private static void relax(double[] distance, int n, int ii, int jj, int kk) {
+		final int I_HI = Math.min(n, (ii + 1) * TILE);
+		final int J_LO = jj * TILE;
+		final int J_HI = Math.min(n, J_LO + TILE);
+		final int K_HI = Math.min(n, (kk + 1) * TILE);
+		int i, j, k, row, kRow;
+		double dik;
+		for (k = kk * TILE; k < K_HI; ++k) {
+			kRow = k * n;
+			for (i = ii * TILE; i < I_HI; ++i) {
+				row = i * n;
+				dik = distance[row + k];
+				if (dik == Double.POSITIVE_INFINITY) continue;
+				for (j = J_LO; j < J_HI; ++j) {
+					distance[row + j] = Math.min(distance[row + j], dik + distance[kRow + j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds the shortest path trees towards targets lo through hi - 1,
+	 * each target writing only its own column of next
+	 */
+	private static class Trees extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final WeightedAdjacency reverse;
+		private final double[] distance;
+		private final int[] next;
+		private final boolean heap;
+		private final int lo;
+		private final int hi;
+
+		Trees(WeightedAdjacency _reverse, double[] _distance, int[] _next, boolean _heap,
+				int _lo, int _hi) {
+			reverse = _reverse;
+			distance = _distance;
+			next = _next;
+			heap = _heap;
+			lo = _lo;
+			hi = _hi;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Trees(reverse, distance, next, heap, lo, mid),
+						new Trees(reverse, distance, next, heap, mid, hi));
+				return;
+			}
+			if (hi == lo) return;
+			final int N = reverse.vertices();
+			final int T = lo;
+			// sum of the reduced weights on the tree path to T
+			double[] key = new double[N];
+			boolean[] done = new boolean[N];
+			IndexedMinHeap queue = heap ? new IndexedMinHeap(N) : null;
+			int u, x, a, i;
+			double dut, dxt, k;
+			for (u = 0; u < N; ++u) {
+				key[u] = Double.POSITIVE_INFINITY;
+				next[u * N + T] = Graph.NIL_VERTEX;
+			}
+			key[T] = 0.0;
+			next[T * N + T] = T;
+			if (queue != null) queue.insert(T, 0.0);
+			while (true) {
+				if (queue != null) {
+					if (queue.isEmpty()) return;
+					u = queue.poll();
+				}
+				else {
+					u = Graph.NIL_VERTEX;
+					for (i = 0; i < N; ++i) {
+						if (!done[i] && key[i] != Double.POSITIVE_INFINITY
+								&& (u == Graph.NIL_VERTEX || key[i] < key[u])) {
+							u = i;
+						}
+					}
+					if (u == Graph.NIL_VERTEX) return;
+				}
+				done[u] = true;
+				dut = distance[u * N + T];
+				// each reversed arc (u, x) is an arc (x, u) of the graph
+				for (a = reverse.firstArc(u); a != Adjacency.NO_ARC; a = reverse.nextArc(u, a)) {
+					x = reverse.target(u, a);
+					dxt = distance[x * N + T];
+					if (done[x] || dxt == Double.POSITIVE_INFINITY) continue;
+					k = key[u] + Math.max(0.0, reverse.weight(u, a) + dut - dxt);
+					if (k < key[x]) {
+						key[x] = k;
+						next[x * N + T] = u;
+						if (queue != null) queue.offer(x, k);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates tiles lo through hi - 1 of the current step for diagonal
+	 * tile kk. Tiles are numbered skipping row and column kk, first
+	 * along row kk then down column kk if cross, otherwise row by row.
+	 */
+	private static class Tiles extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final double[] distance;
+		private final int n;
+		private final int kk;
+		private final boolean cross;
+		private final int lo;
+		private final int hi;
+
+		Tiles(double[] _distance, int _n, int _kk, boolean _cross, int _lo, int _hi) {
+			distance = _distance;
+			n = _n;
+			kk = _kk;
+			cross = _cross;
+			lo = _lo;
+			hi = _hi;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Tiles(distance, n, kk, cross, lo, mid),
+						new Tiles(distance, n, kk, cross, mid, hi));
+				return;
+			}
+			final int OTHERS = (n + TILE - 1) / TILE - 1;
+			int t = lo, ii, jj;
+			if (cross) {
+				if (t < OTHERS) {
+					ii = kk;
+					jj = skip(t);
+				}
+				else {
+					ii = skip(t - OTHERS);
+					jj = kk;
+				}
+			}
+			else {
+				ii = skip(t / OTHERS);
+				jj = skip(t % OTHERS);
+			}
+			relax(distance, n, ii, jj, kk);
+		}
+
+		// the t-th tile other than kk
+		private int skip(int t) {
+			return t < kk ? t : t + 1;
+		}
+	}
+}
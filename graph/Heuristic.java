@@ -0,0 +1,24 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Estimate of the weight of a shortest path, used to direct A* search
+ * toward its target
+ * @author Marshall Farrier
+ *
+ */
+public interface Heuristic {
+	/**
+	 * A lower bound on the weight of a shortest path from _v to _t,
+	 * or Double.POSITIVE_INFINITY if there is none. Vertices are given
+	 * with the offset of the graph searched.
+	 * For A* search to find shortest paths the estimate must never
+	 * exceed the true weight.
+	 * @param _v
+	 * @param _t
+	 * @return
+	 */
+	public double estimate(int _v, int _t);
+}
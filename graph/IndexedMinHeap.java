@@ -0,0 +1,201 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Min-priority queue of the integer keys 0 through capacity() - 1,
+ * each with a double priority (CLRS, 6.5).
+ * The heap is 4-ary, which keeps it shallow and the children of each node
+ * adjacent in memory. Since the position of every key in the heap
+ * is tracked, decreaseKey() takes O(log n) time rather than the
+ * linear search needed to remove an element from java.util.PriorityQueue.
+ * No objects are allocated after construction.
+ * @author Marshall Farrier
+ *
+ */
+public class IndexedMinHeap {
+	private static final int ARITY = 4;
+	private static final int LOG_ARITY = 2;
+	private static final int ABSENT = -1;
+	// heap[i] is the key at position i
+	private int[] heap;
+	// position[key] is the position of key in heap, or ABSENT
+	private int[] position;
+	private double[] priority;
+	private int size;
+
+	public IndexedMinHeap(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Heap cannot have negative capacity");
+		}
+		heap = new int[capacity];
+		position = new int[capacity];
+		priority = new double[capacity];
+		for (int i = 0; i < capacity; ++i) {
+			position[i] = ABSENT;
+		}
+		size = 0;
+	}
+
+	public int capacity() { return position.length; }
+
+	public int size() { return size; }
+
+	public boolean isEmpty() { return size == 0; }
+
+	public boolean contains(int key) {
+		checkKey(key);
+		return position[key] != ABSENT;
+	}
+
+	/**
+	 * Throws an IllegalArgumentException if key is already in the heap
+	 * @param key
+	 * @param p
+	 */
+	public void insert(int key, double p) {
+		checkKey(key);
+		if (position[key] != ABSENT) {
+			throw new IllegalArgumentException("Key already in heap");
+		}
+		priority[key] = p;
+		siftUp(key, size++);
+	}
+
+	/**
+	 * CLRS, p. 164
+	 * Throws an IllegalArgumentException if key is not in the heap
+	 * or if p is greater than its current priority.
+	 * @param key
+	 * @param p
+	 */
+	public void decreaseKey(int key, double p) {
+		checkKey(key);
+		if (position[key] == ABSENT) {
+			throw new IllegalArgumentException("Key not in heap");
+		}
+		if (p > priority[key]) {
+			throw new IllegalArgumentException("New priority is greater than current priority");
+		}
+		priority[key] = p;
+		siftUp(key, position[key]);
+	}
+
+	/**
+	 * Inserts key if it is not in the heap and otherwise decreases its
+	 * priority to p if p is smaller.
+	 * Returns false and does nothing if key is present with
+	 * priority no greater than p.
+	 * @param key
+	 * @param p
+	 * @return
+	 */
+	public boolean offer(int key, double p) {
+		checkKey(key);
+		if (position[key] == ABSENT) {
+			priority[key] = p;
+			siftUp(key, size++);
+			return true;
+		}
+		if (p < priority[key]) {
+			priority[key] = p;
+			siftUp(key, position[key]);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the key of minimum priority without removing it
+	 * @return
+	 */
+	public int peek() {
+		if (size == 0) {
+			throw new NoSuchElementException("Heap is empty");
+		}
+		return heap[0];
+	}
+
+	/**
+	 * CLRS, p. 163
+	 * Removes and returns the key of minimum priority
+	 * @return
+	 */
+	public int poll() {
+		if (size == 0) {
+			throw new NoSuchElementException("Heap is empty");
+		}
+		int result = heap[0];
+		position[result] = ABSENT;
+		if (--size > 0) {
+			siftDown(heap[size], 0);
+		}
+		return result;
+	}
+
+	/**
+	 * Priority with which key was last inserted or decreased.
+	 * The value remains available after key has been polled.
+	 * @param key
+	 * @return
+	 */
+	public double priority(int key) {
+		checkKey(key);
+		return priority[key];
+	}
+
+	/**
+	 * Empties the heap in time proportional to its current size
+	 */
+	public void clear() {
+		for (int i = 0; i < size; ++i) {
+			position[heap[i]] = ABSENT;
+		}
+		size = 0;
+	}
+
+	private void checkKey(int key) {
+		if (key < 0 || position.length <= key) {
+			throw new IllegalArgumentException("Invalid key");
+		}
+	}
+
+	// moves key up from pos, which must be a free slot or key's own slot
+	private void siftUp(int key, int pos) {
+		final double P = priority[key];
+		int parent;
+		while (pos > 0) {
+			parent = (pos - 1) >>> LOG_ARITY;
+			if (priority[heap[parent]] <= P) break;
+			heap[pos] = heap[parent];
+			position[heap[pos]] = pos;
+			pos = parent;
+		}
+		heap[pos] = key;
+		position[key] = pos;
+	}
+
+	// places key at pos and moves it down as far as necessary
+	private void siftDown(int key, int pos) {
+		final double P = priority[key];
+		int child, end, min, i;
+		while (true) {
+			child = (pos << LOG_ARITY) + 1;
+			if (child >= size) break;
+			end = Math.min(child + ARITY, size);
+			min = child;
+			for (i = child + 1; i < end; ++i) {
+				if (priority[heap[i]] < priority[heap[min]]) min = i;
+			}
+			if (priority[heap[min]] >= P) break;
+			heap[pos] = heap[min];
+			position[heap[pos]] = pos;
+			pos = min;
+		}
+		heap[pos] = key;
+		position[key] = pos;
+	}
+}
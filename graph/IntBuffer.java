@@ -0,0 +1,41 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Growable list of ints, used by the parallel algorithms to collect
+ * the vertices claimed by one task and for work lists
+ * @author Marshall Farrier
+ *
+ */
+final class IntBuffer {
+	private static final int MIN_CAPACITY = 16;
+	private int[] data;
+	private int size;
+
+	IntBuffer(int capacity) {
+		data = new int[Math.max(capacity, MIN_CAPACITY)];
+	}
+
+	int size() { return size; }
+
+	int get(int i) { return data[i]; }
+
+	void add(int x) {
+		if (size == data.length) data = Arrays.copyOf(data, 2 * size);
+		data[size++] = x;
+	}
+
+	int removeLast() { return data[--size]; }
+
+	void clear() { size = 0; }
+
+	// appends the contents to list at a position reserved through tail
+	void copyTo(int[] list, AtomicInteger tail) {
+		if (size > 0) System.arraycopy(data, 0, list, tail.getAndAdd(size), size);
+	}
+}
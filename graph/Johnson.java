@@ -0,0 +1,139 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Johnson's algorithm (CLRS, p. 700) for all-pairs shortest paths in
+ * sparse graphs with negative edge weights, over a WeightedAdjacency view.
+ * Vertices are internal (no offset).
+ * The weights are made non-negative with potentials found by
+ * Bellman-Ford, after which Dijkstra's algorithm is run from each
+ * source, with the sources split among tasks in a ForkJoinPool.
+ * @author Marshall Farrier
+ *
+ */
+final class Johnson {
+	private Johnson() {}
+
+	/**
+	 * Passes the shortest paths from each vertex of g to sink.
+	 * Throws an IllegalStateException if g has a cycle of negative weight.
+	 * @param owner The graph of which g is a view, for the offset of the results
+	 * @param g Must not be modified during the search
+	 * @param sink
+	 * @param pool
+	 * @param threshold Maximum number of sources searched by one task
+	 */
+	static void search(AbstractGraph owner, WeightedAdjacency g, ShortestPathsSink sink,
+			ForkJoinPool pool, int threshold) {
+		final int VERTICES = g.vertices();
+		// shortest path weights from a new vertex with an edge of weight 0 to every vertex
+		double[] h = new double[VERTICES];
+		if (!BellmanFord.relaxAll(g, h, null)) {
+			throw new IllegalStateException("Graph contains a negative cycle");
+		}
+		boolean negative = false;
+		for (int u = 0; u < VERTICES && !negative; ++u) {
+			negative = h[u] < 0.0;
+		}
+		// without negative weights the potentials are all 0
+		WeightedAdjacency view = negative ? new Reweighted(g, h, false) : g;
+		pool.invoke(new Sources(owner, view, negative ? h : null, sink, 0, VERTICES, threshold));
+	}
+
+	/**
+	 * View with weights w(u, v) + h(u) - h(v), which are non-negative
+	 * if h gives the shortest path weights from some vertex. Values below
+	 * 0 from rounding are raised to 0.
+	 */
+	private static class Reweighted implements WeightedAdjacency {
+		private final WeightedAdjacency g;
+		private final double[] h;
+		// arcs of the reverse view run from v to u
+		private final boolean reversed;
+		private WeightedAdjacency reverse;
+
+		Reweighted(WeightedAdjacency _g, double[] _h, boolean _reversed) {
+			g = _g;
+			h = _h;
+			reversed = _reversed;
+			reverse = _g.directed() ? null : this;
+		}
+
+		public int vertices() { return g.vertices(); }
+		public boolean directed() { return g.directed(); }
+		public int outDegree(int u) { return g.outDegree(u); }
+		public int firstArc(int u) { return g.firstArc(u); }
+		public int nextArc(int u, int arc) { return g.nextArc(u, arc); }
+		public int target(int u, int arc) { return g.target(u, arc); }
+
+		public double weight(int u, int arc) {
+			double w = reversed ? g.weight(u, arc) + h[g.target(u, arc)] - h[u]
+					: g.weight(u, arc) + h[u] - h[g.target(u, arc)];
+			return Math.max(w, 0.0);
+		}
+
+		public WeightedAdjacency reverse() {
+			if (reverse == null) {
+				Reweighted result = new Reweighted(g.reverse(), h, !reversed);
+				result.reverse = this;
+				reverse = result;
+			}
+			return reverse;
+		}
+	}
+
+	/**
+	 * Searches from sources lo through hi - 1. A task that searches
+	 * allocates its arrays and heap once and reuses them for each source.
+	 */
+	private static class Sources extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final AbstractGraph owner;
+		private final WeightedAdjacency g;
+		// null if the weights were not changed
+		private final double[] h;
+		private final ShortestPathsSink sink;
+		private final int lo;
+		private final int hi;
+		private final int threshold;
+
+		Sources(AbstractGraph _owner, WeightedAdjacency _g, double[] _h, ShortestPathsSink _sink,
+				int _lo, int _hi, int _threshold) {
+			owner = _owner;
+			g = _g;
+			h = _h;
+			sink = _sink;
+			lo = _lo;
+			hi = _hi;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new Sources(owner, g, h, sink, lo, mid, threshold),
+						new Sources(owner, g, h, sink, mid, hi, threshold));
+				return;
+			}
+			final int VERTICES = g.vertices();
+			double[] distance = new double[VERTICES];
+			int[] parent = new int[VERTICES];
+			IndexedMinHeap q = new IndexedMinHeap(VERTICES);
+			for (int s = lo; s < hi; ++s) {
+				Dijkstra.search(g, s, Dijkstra.ALL, distance, parent, q);
+				if (h != null) {
+					for (int v = 0; v < VERTICES; ++v) {
+						if (distance[v] != Double.POSITIVE_INFINITY) distance[v] += h[v] - h[s];
+					}
+				}
+				sink.accept(new ShortestPaths(owner, s, distance, parent));
+			}
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Distances to and from a few landmark vertices, giving lower bounds on
+ * distances for A* search by the triangle inequality (the ALT method of
+ * Goldberg and Harrelson, "Computing the shortest path: A* search meets
+ * graph theory", 2005): for any landmark L,
+ * d(v, t) >= d(L, t) - d(L, v) and d(v, t) >= d(v, L) - d(t, L).
+ * Landmarks are chosen by farthest-point selection, each being the vertex
+ * farthest from those already chosen, so that they lie at the edges of
+ * the graph and bound well the distances that run toward them.
+ * The distances are stored as floats in k x V tables. Built by the
+ * landmarks() methods of the weighted graphs, and not updated when the
+ * graph changes.
+ * Vertices are given and returned with the offset of the graph.
+ * @author Marshall Farrier
+ *
+ */
+public class Landmarks implements Heuristic {
+	// allowance for rounding distances to float, above the relative error of 2^-24 in each
+	private static final double ROUNDING = 1.0e-7;
+	private final char offset;
+	// no offset
+	private final int[] landmark;
+	// from[i][v] is the distance from landmark i to v, and to[i][v] that from v to it
+	private final float[][] from;
+	private final float[][] to;
+
+	/**
+	 * Chooses k landmarks and finds their distances with Dijkstra's
+	 * algorithm, in time O(k E lg V). The first landmark is the vertex
+	 * farthest from vertex 0. Vertices that no landmark reaches count as
+	 * farthest, so each part of a graph that is not connected gets a landmark.
+	 * Throws an IllegalArgumentException if g has an edge of negative weight.
+	 * @param owner The graph of which g is a view
+	 * @param g
+	 * @param k At least 1 and at most g.vertices()
+	 */
+	Landmarks(AbstractGraph owner, WeightedAdjacency g, int k) {
+		final int VERTICES = g.vertices();
+		offset = owner.offset();
+		landmark = new int[k];
+		from = new float[k][];
+		to = g.directed() ? new float[k][] : from;
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		IndexedMinHeap q = new IndexedMinHeap(VERTICES);
+		// distance of each vertex from the nearest landmark
+		double[] nearest = new double[VERTICES];
+		int i, v, farthest;
+		Dijkstra.search(g, 0, Dijkstra.ALL, distance, parent, q);
+		for (v = 0; v < VERTICES; ++v) {
+			nearest[v] = distance[v];
+		}
+		for (i = 0; i < k; ++i) {
+			farthest = 0;
+			for (v = 1; v < VERTICES; ++v) {
+				if (nearest[v] > nearest[farthest]) farthest = v;
+			}
+			landmark[i] = farthest;
+			Dijkstra.search(g, farthest, Dijkstra.ALL, distance, parent, q);
+			from[i] = toFloats(distance);
+			for (v = 0; v < VERTICES; ++v) {
+				if (distance[v] < nearest[v] || i == 0) nearest[v] = distance[v];
+			}
+			if (g.directed()) {
+				Dijkstra.search(g.reverse(), farthest, Dijkstra.ALL, distance, parent, q);
+				to[i] = toFloats(distance);
+			}
+		}
+	}
+
+	private static float[] toFloats(double[] distance) {
+		float[] result = new float[distance.length];
+		for (int v = 0; v < distance.length; ++v) {
+			result[v] = (float) distance[v];
+		}
+		return result;
+	}
+
+	/**
+	 * Number of landmarks
+	 * @return
+	 */
+	public int size() { return landmark.length; }
+
+	/**
+	 * Landmark i, in the order chosen
+	 * @param i
+	 * @return
+	 */
+	public int landmark(int i) {
+		if (i < 0 || landmark.length <= i) {
+			throw new IllegalArgumentException("Invalid landmark");
+		}
+		return landmark[i] + offset;
+	}
+
+	/**
+	 * The greatest of the lower bounds given by the landmarks, lowered
+	 * slightly to allow for the rounding of the stored distances.
+	 * Double.POSITIVE_INFINITY if some landmark shows that _t cannot be
+	 * reached from _v.
+	 */
+	public double estimate(int _v, int _t) {
+		int v = vertex(_v), t = vertex(_t);
+		double result = 0.0, bound;
+		for (int i = 0; i < landmark.length; ++i) {
+			bound = lowerBound(from[i][t], from[i][v]);
+			if (bound > result) result = bound;
+			bound = lowerBound(to[i][v], to[i][t]);
+			if (bound > result) result = bound;
+		}
+		return result;
+	}
+
+	// a - b, lowered for rounding; 0 if both are infinite
+	private static double lowerBound(float a, float b) {
+		if (a == Float.POSITIVE_INFINITY) {
+			return b == Float.POSITIVE_INFINITY ? 0.0 : Double.POSITIVE_INFINITY;
+		}
+		return (double) a - b - ROUNDING * ((double) a + b);
+	}
+
+	private int vertex(int _v) {
+		int v = _v - offset;
+		if (v < 0 || from[0].length <= v) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return v;
+	}
+}
@@ -3,8 +3,8 @@
  */
 package graph;
 
+import java.util.Arrays;
 import java.util.LinkedList;
-import java.util.ListIterator;
 
 /**
  * Can be directed or undirected.
@@ -19,100 +19,126 @@ import java.util.ListIterator;
  *
  */
 public class LinkedListGraph extends AbstractGraph implements Graph {	
+	private static final int[] NO_ADJACENCIES = new int[0];
+	private static final int INITIAL_CAPACITY = 4;
 	private int e;
-	private LinkedList<Integer>[] adj;
+	/**
+	 * adj[u][0] through adj[u][degree[u] - 1] are the vertices adjacent to u,
+	 * in insertion order. Each row is a growable buffer, so that inserting
+	 * and removing edges does not allocate except when a row must grow.
+	 */
+	private int[][] adj;
+	private int[] degree;
 	
 // some protected edge methods for speed (but unchecked)
 	/**
 	 * This method bypasses exceptions and works without offsets
 	 */
 	protected boolean fastInsert(int _from, int _to) {
-		if (adj[_from].contains(_to)) return false;	// edge already present
+		if (indexOf(_from, _to) >= 0) return false;	// edge already present
 		++e;
-		adj[_from].add(_to);
+		append(_from, _to);
 		if (!directed()) {
-			adj[_to].add(_from);
+			append(_to, _from);
 		}
 		return true;
 	}
 	protected boolean fastRemove(int _from, int _to) {
-		boolean found = adj[_from].remove((Integer)_to);
+		boolean found = delete(_from, _to);
 		if (found) {
 			--e;
-			if (!directed()) adj[_to].remove((Integer)_from);
+			if (!directed()) delete(_to, _from);
 		}
 		return found;
 	}
 	// Does not check for possible duplicates!
 	// Use only if edge is KNOWN not to exist in calling graph
 	protected void uncheckedInsert(int from, int to) {
-		adj[from].add(to);
+		append(from, to);
 		if (!directed()) {
-			adj[to].add(from);
+			append(to, from);
 		}
 		++e;
 	}
 	// Gives no feedback on success or failure
 	protected void uncheckedRemove(int from, int to) {
-		if (adj[from].remove((Integer) to)) {
-			if (!directed()) adj[to].remove((Integer) from);
+		if (delete(from, to)) {
+			if (!directed()) delete(to, from);
 			--e;
 		}		
 	}
+	
+// adjacency buffer management (no offsets, no validation)
+	private void initAdjacencies(int _v) {
+		adj = new int[_v][];
+		degree = new int[_v];
+		// rows are allocated on first insertion
+		for (int i = 0; i < _v; ++i) {
+			adj[i] = NO_ADJACENCIES;
+		}
+	}
+	private void copyAdjacencies(LinkedListGraph g) {
+		final int VERTICES = g.vertices();
+		adj = new int[VERTICES][];
+		degree = new int[VERTICES];
+		for (int i = 0; i < VERTICES; ++i) {
+			degree[i] = g.degree[i];
+			if (degree[i] == 0) adj[i] = NO_ADJACENCIES;
+			else adj[i] = Arrays.copyOf(g.adj[i], degree[i]);
+		}
+	}
+	private void append(int from, int to) {
+		if (degree[from] == adj[from].length) {
+			adj[from] = Arrays.copyOf(adj[from], Math.max(INITIAL_CAPACITY, 2 * degree[from]));
+		}
+		adj[from][degree[from]++] = to;
+	}
+	private int indexOf(int from, int to) {
+		final int[] ROW = adj[from];
+		final int SIZE = degree[from];
+		for (int i = 0; i < SIZE; ++i) {
+			if (ROW[i] == to) return i;
+		}
+		return -1;
+	}
+	// removes the edge while preserving the order of the remaining adjacencies
+	private boolean delete(int from, int to) {
+		int i = indexOf(from, to);
+		if (i < 0) return false;
+		System.arraycopy(adj[from], i + 1, adj[from], i, degree[from] - i - 1);
+		--degree[from];
+		return true;
+	}
 
 // constructors	
 	public LinkedListGraph(int _v) {
 		super(_v);
 		e = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<Integer>();
-		}
+		initAdjacencies(_v);
 	}
 	
 	public LinkedListGraph(int _v, boolean _directed) {
 		super(_v, _directed);
 		e = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<Integer>();
-		}
+		initAdjacencies(_v);
 	}
 	
 	public LinkedListGraph(int _v, boolean _directed, int _offset) {
 		super(_v, _directed, _offset);
 		e = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<Integer>();
-		}		
+		initAdjacencies(_v);
 	}
 	
 	public LinkedListGraph(int _v, boolean _directed, int _offset, int _dataFields) {
 		super(_v, _directed, _offset, _dataFields);
 		e = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<Integer>();
-		}
+		initAdjacencies(_v);
 	}
 	
 	public LinkedListGraph(LinkedListGraph _g) {
 		super(_g);
 		e = _g.edges();		
-		int _v = vertices();
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<Integer>();
-		}
-		ListIterator<Integer> it;
-		for (int i = 0; i < _v; ++i) {
-			// copy edges
-			it = _g.adj[i].listIterator();
-			while (it.hasNext()) {
-				adj[i].add(it.next());
-			}
-		}		
+		copyAdjacencies(_g);
 	}
 	
 	/**
@@ -126,29 +152,14 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 	public LinkedListGraph(LinkedListGraph g, int dataFields) {
 		super(g, dataFields);
 		e = g.edges();		
-		final int VERTICES = vertices();
-		adj = new LinkedList[VERTICES];
-		for (int i = 0; i < VERTICES; ++i) {
-			adj[i] = new LinkedList<Integer>();
-		}
-		ListIterator<Integer> it;
-		for (int i = 0; i < VERTICES; ++i) {
-			// copy edges
-			it = g.adj[i].listIterator();
-			while (it.hasNext()) {
-				adj[i].add(it.next());
-			}
-		}
+		copyAdjacencies(g);
 	}
 	
 	public LinkedListGraph(MatrixGraph _g) {
 		super(_g);
 		e = 0;
 		int _v = vertices(), i;
-		adj = new LinkedList[_v];
-		for (i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<Integer>();
-		}
+		initAdjacencies(_v);
 		Edge [] _edges = _g.getEdges();
 		int len = _edges.length;
 		for (i = 0; i < len; ++i) {
@@ -160,10 +171,7 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		super(_g);
 		e = 0;
 		int _v = vertices(), i;
-		adj = new LinkedList[_v];
-		for (i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<Integer>();
-		}
+		initAdjacencies(_v);
 		Edge [] _edges = _g.getEdges();
 		int len = _edges.length;
 		for (i = 0; i < len; ++i) {
@@ -186,11 +194,11 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		if (_from == _to && !_directed) {
 			throw new IllegalArgumentException("Self-edge not allowed in an undirected graph");
 		}
-		if (adj[_from].contains(_to)) return false;	// edge already present
+		if (indexOf(_from, _to) >= 0) return false;	// edge already present
 		++e;
-		adj[_from].add(_to);
+		append(_from, _to);
 		if (!_directed) {
-			adj[_to].add(_from);
+			append(_to, _from);
 		}
 		return true;
 	}
@@ -213,10 +221,10 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		if (_from == _to && !_directed) {
 			throw new IllegalArgumentException("Self-edge not allowed in an undirected graph");
 		}
-		boolean found = adj[_from].remove((Integer)_to);
+		boolean found = delete(_from, _to);
 		if (found) {
 			--e;
-			if (!_directed)	adj[_to].remove((Integer)_from);
+			if (!_directed)	delete(_to, _from);
 		}
 		return found;
 	}
@@ -233,23 +241,20 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		int _v =  vertices();
 		Edge [] result = new Edge[e];
 		if (e == 0) return result;
-		int counter = 0;
-		ListIterator<Integer> it;
+		int counter = 0, j;
 		if (_offset == 0) {
 			if (directed()) {
 				for (int i = 0; i < _v; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						result[counter++] = new Edge(i, it.next(), CHAR_REP);
+					for (j = 0; j < degree[i]; ++j) {
+						result[counter++] = new Edge(i, adj[i][j], CHAR_REP);
 					}
 				}
 			}
 			else {
 				int u, max = _v - 1;
 				for (int i = 0; i < max; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						u = it.next();
+					for (j = 0; j < degree[i]; ++j) {
+						u = adj[i][j];
 						if (i < u) result[counter++] = new Edge(i, u, CHAR_REP);
 					}
 				}
@@ -258,18 +263,16 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		else {
 			if (directed()) {
 				for (int i = 0; i < _v; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						result[counter++] = new Edge(i + _offset, it.next() + _offset, CHAR_REP);
+					for (j = 0; j < degree[i]; ++j) {
+						result[counter++] = new Edge(i + _offset, adj[i][j] + _offset, CHAR_REP);
 					}
 				}
 			}
 			else {
 				int u, max = _v - 1;
 				for (int i = 0; i < max; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						u = it.next();
+					for (j = 0; j < degree[i]; ++j) {
+						u = adj[i][j];
 						if (i < u) result[counter++] = new Edge(i + _offset, u + _offset, CHAR_REP);
 					}
 				}
@@ -285,11 +288,9 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		if (_from < 0 || _v <= _from) {
 			throw new IllegalArgumentException("Invalid vertex");
 		}
-		Edge [] result = new Edge[adj[_from].size()];
-		int counter = 0;
-		ListIterator<Integer> it = adj[_from].listIterator();
-		while (it.hasNext()) {
-			result[counter++] = new Edge(_from + _offset, it.next() + _offset, charRep());
+		Edge [] result = new Edge[degree[_from]];
+		for (int i = 0; i < degree[_from]; ++i) {
+			result[i] = new Edge(_from + _offset, adj[_from][i] + _offset, charRep());
 		}
 		return result;
 	}
@@ -306,15 +307,48 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		if (_from < 0 || _v <= _from) {
 			throw new IllegalArgumentException("Invalid vertex");
 		}
-		int [] result = new int[adj[_from].size()];
-		int counter = 0;
-		ListIterator<Integer> it = adj[_from].listIterator();
-		while (it.hasNext()) {
-			result[counter++] = it.next() + _offset;
+		int [] result = new int[degree[_from]];
+		for (int i = 0; i < degree[_from]; ++i) {
+			result[i] = adj[_from][i] + _offset;
 		}
 		return result;
 	}
 	
+	/**
+	 * Allocation-free version of getAdjacencies(): copies the vertices
+	 * adjacent to _f into _buffer, which must have room for at least
+	 * outDegree(_f) entries.
+	 * @param _f
+	 * @param _buffer
+	 * @return The number of adjacencies copied into _buffer
+	 */
+	public int getAdjacencies(int _f, int[] _buffer) {
+		char _offset = offset();
+		int _from = _f - _offset;
+		if (_from < 0 || vertices() <= _from) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		if (_buffer.length < degree[_from]) {
+			throw new IllegalArgumentException("Buffer too small");
+		}
+		for (int i = 0; i < degree[_from]; ++i) {
+			_buffer[i] = adj[_from][i] + _offset;
+		}
+		return degree[_from];
+	}
+	
+	/**
+	 * @param _f
+	 * @return The number of edges leaving _f
+	 */
+	public int outDegree(int _f) {
+		int _from = _f - offset();
+		if (_from < 0 || vertices() <= _from) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return degree[_from];
+	}
+	
 	public boolean hasEdge(int _f, int _t) {
 		char _offset = offset();
 		int _v =  vertices();
@@ -322,7 +356,7 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		if (_from < 0 || _to < 0 || _from >= _v || _to >= _v) {
 			throw new IllegalArgumentException("Invalid edge for current graph");
 		}
-		return adj[_from].contains(_to);
+		return indexOf(_from, _to) >= 0;
 	}
 	
 	public boolean hasEdge(Edge _e) {
@@ -342,13 +376,12 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 			throw new UnsupportedOperationException("Transpose operation trivial on undirected graphs");
 		}
 		LinkedListGraph result = new LinkedListGraph(_v, _directed, _offset, _d);
-		ListIterator<Integer> it;
+		result.e = e;
 		int j;
 		for (int i = 0; i < _v; ++i) {
 			// transfer transposed edges
-			it = adj[i].listIterator();
-			while (it.hasNext()) {
-				result.adj[it.next()].add(i);
+			for (j = 0; j < degree[i]; ++j) {
+				result.append(adj[i][j], i);
 			}
 			// copy vertex data
 			for (j = 0; j < _d; ++j) {
@@ -357,6 +390,38 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		}
 		return result;
 	}
+	
+// methods inherited from AbstractGraph
+	/**
+	 * The view reads the adjacency lists of this graph directly, so
+	 * the graph must not be modified while the view is in use.
+	 * An arc is an index in the adjacency list of its tail.
+	 */
+	Adjacency adjacency() {
+		return new ListAdjacency();
+	}
+	
+	private class ListAdjacency implements Adjacency {
+		private Adjacency reverse;
+		
+		public int vertices() { return LinkedListGraph.this.vertices(); }
+		public boolean directed() { return LinkedListGraph.this.directed(); }
+		public int outDegree(int u) { return degree[u]; }
+		public int firstArc(int u) {
+			return degree[u] > 0 ? 0 : NO_ARC;
+		}
+		public int nextArc(int u, int arc) {
+			return arc + 1 < degree[u] ? arc + 1 : NO_ARC;
+		}
+		public int target(int u, int arc) { return adj[u][arc]; }
+		public Adjacency reverse() {
+			if (reverse == null) {
+				reverse = directed() ? CsrAdjacency.reverseOf(this) : this;
+			}
+			return reverse;
+		}
+	}
+	
 // methods inherited from Object	
 	// returns a deep copy of calling object
 	@Override
@@ -371,15 +436,13 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		boolean _charRep = charRep();
 		String result = "";
 		int i, j, lim = _v - 1;
-		ListIterator<Integer> it;
 		if (_charRep) {
 			for (i = 0; i < _v; ++i) {
 				result += (char)(i + _offset) + ": ";
-				it = adj[i].listIterator();
-				if (it.hasNext()) {
-					result += (char)(it.next() + _offset);
-					while (it.hasNext()) {
-						result += " -> " + (char)(it.next() + _offset);
+				if (degree[i] > 0) {
+					result += (char)(adj[i][0] + _offset);
+					for (j = 1; j < degree[i]; ++j) {
+						result += " -> " + (char)(adj[i][j] + _offset);
 					}					
 				}		
 				if (i < lim) result += "\n";
@@ -395,11 +458,10 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 					result += " ";
 				}
 				result += i + ": ";
-				it = adj[i].listIterator();
-				if (it.hasNext()) {
-					result += it.next();
-					while (it.hasNext()) {
-						result += " -> " + it.next();
+				if (degree[i] > 0) {
+					result += adj[i][0];
+					for (j = 1; j < degree[i]; ++j) {
+						result += " -> " + adj[i][j];
 					}					
 				}			
 				if (i < lim) result += "\n";
@@ -413,58 +475,13 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 	 * 0 is white
 	 * 1 is gray
 	 * 2 is black
+	 * The result graph is built from breadthFirstSearchCompact(), which
+	 * callers needing only distances or parents should use instead.
 	 * @param i vertex from which to search
 	 * @return
 	 */
 	public LinkedListGraph breadthFirstSearch(int _s) {
-		char _offset = offset();
-		int _v = vertices();
-		int s = _s - _offset;
-		
-		if (s < 0 || _v <= s) {
-			throw new IllegalArgumentException("Invalid vertex");
-		}
-		final int DATA_FIELDS = 3;		
-		
-		LinkedListGraph result = new LinkedListGraph(_v, false, _offset, DATA_FIELDS);
-		result.setDataFieldLabel(COLOR, 'c');
-		result.setDataFieldLabel(DISTANCE, 'd');
-		result.setDataFieldLabel(PARENT, 'p');
-		
-		
-		
-		int i;
-		for (i = 0; i < _v; ++i) {
-			// set color to white
-			result.setData(i, COLOR, WHITE);
-			// set distance to -1
-			result.setData(i, DISTANCE, -1);
-			// set parent to NIL_VERTEX
-			result.setData(i, PARENT, NIL_VERTEX);			
-		}
-		result.setData(s, COLOR, GRAY);
-		result.setData(s, DISTANCE, 0);
-		
-		LinkedList<Integer> q = new LinkedList<Integer>();
-		ListIterator<Integer> it;
-		int vert;
-		q.add(s);
-		while (!q.isEmpty()) {
-			int u = q.remove();
-			it = adj[u].listIterator();
-			while (it.hasNext()) {
-				vert = it.next();
-				if (result.getData(vert, COLOR) == WHITE) {
-					result.setData(vert, COLOR, GRAY);
-					result.setData(vert, DISTANCE, result.getData(u, DISTANCE) + 1);
-					result.setData(vert, PARENT, u);
-					result.uncheckedInsert(u, vert);
-					q.add(vert);
-				}
-			}
-			result.setData(u, COLOR, BLACK);
-		}
-		return result;
+		return breadthFirstSearchCompact(_s).tree();
 	}
 	
 	/**
@@ -524,35 +541,12 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 	/**
 	 * CLRS, p. 604
 	 * The most basic version of DFS
+	 * The search keeps its state in arrays of its own and only reads
+	 * the graph, so searches may run on one graph from several threads.
 	 * @return
 	 */
 	public LinkedListGraph depthFirstSearch() {
-		final int VERTICES = vertices();
-		final char OFFSET = offset();
-		final boolean DIRECTED = false;
-		final int DATA_FIELDS = 4;
-		
-		LinkedListGraph result = new LinkedListGraph(VERTICES, DIRECTED, OFFSET, DATA_FIELDS);
-		result.setDataFieldLabel(COLOR, 'c');		
-		result.setDataFieldLabel(PARENT, 'p');
-		result.setDataFieldLabel(DISCOVERY_TIME, 'd');
-		result.setDataFieldLabel(FINISH_TIME, 'f');
-		
-		int i;		
-		for (i = 0; i < VERTICES; ++i) {
-			// set color to white
-			result.setData(i, COLOR, WHITE);
-			// set parent to NIL_VERTEX
-			result.setData(i, PARENT, NIL_VERTEX);	
-		}
-		
-		time = 0;
-		for (i = 0; i < VERTICES; ++i) {
-			if (result.getData(i, COLOR) == WHITE) {
-				dfsVisit(result, i);
-			}
-		}
-		return result;
+		return DepthFirstSearch.forest(this, adjacency(), null, null, false);
 	}
 	
 	/**
@@ -562,11 +556,11 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 	 * The orderField column is assumed to contain exclusively non-negative
 	 * values and is assumed to contain a unique value for each
 	 * vertex.
-	 * Note: This method will normally modify the order of the
-	 * vertex adjacency lists in the calling graph.
-	 * If edge types (tree, back, forward cross), the graph must be
-	 * converted to a WeightedLinkedListGraph and the corresponding
-	 * method used in that class.
+	 * The adjacencies of each vertex are explored in the same order,
+	 * but the adjacency lists of the calling graph are left as they are.
+	 * If edge types (tree, back, forward cross) are needed, the graph must be
+	 * converted to a WeightedLinkedListGraph and its classifyEdges()
+	 * method used.
 	 * @param orderField Index of data field to be used for ordering
 	 * @param orderMax Maximum value for satellite data field
 	 * @param asc True for sorting vertices using the satellite data
@@ -574,118 +568,9 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 	 * @return
 	 */
 	public LinkedListGraph depthFirstSearch(int orderField, int orderMax, boolean asc) {
-		final int VERTICES = vertices();
-		final char OFFSET = offset();
-		final boolean DIRECTED = false;
-		final int DATA_FIELDS = 5;		
-		int i;
-		
 		int[][] vArr = sortedVertices(orderField, orderMax, asc);
-		
-		// Re-order the adjacency lists of the calling graph
-		for (i = 0; i < VERTICES; ++i) {
-			if (!adj[i].isEmpty()) {
-				sortAdjacencyList(adj[i], vArr[VERTEX_LOOKUP]);
-			}
-		}
-		
-		LinkedListGraph result = new LinkedListGraph(VERTICES, DIRECTED, OFFSET, DATA_FIELDS);
-		result.setDataFieldLabel(COLOR, 'c');		
-		result.setDataFieldLabel(PARENT, 'p');
-		result.setDataFieldLabel(DISCOVERY_TIME, 'd');
-		result.setDataFieldLabel(FINISH_TIME, 'f');
-		result.setDataFieldLabel(TREE_NUMBER, 't');
-				
-		for (i = 0; i < VERTICES; ++i) {
-			// set color to white
-			result.setData(i, COLOR, WHITE);
-			// set parent to NIL_VERTEX
-			result.setData(i, PARENT, NIL_VERTEX);	
-		}
-		
-		time = 0;
-		int treeNum = 0;
-		for (i = 0; i < VERTICES; ++i) {
-			if (result.getData(vArr[VERTICES_SORTED][i], COLOR) == WHITE) {
-				dfsVisit(result, vArr[VERTICES_SORTED][i], treeNum++);
-			}
-		}
-		return result;
-	}
-	
-	/**
-	 * CLRS, p. 604
-	 * @param g The result graph from depthFirstSearch()
-	 * @param v The vertex being explored
-	 */
-	private void dfsVisit(LinkedListGraph res, int v) {
-		res.setData(v, DISCOVERY_TIME, ++time);
-		res.setData(v, COLOR, GRAY);
-		
-		ListIterator<Integer> it = adj[v].listIterator();
-		int adjacency;
-		while (it.hasNext()) {
-			adjacency = it.next();
-			if (res.getData(adjacency, COLOR) == WHITE) {
-				// Insert edge into result graph
-				res.adj[v].add(adjacency);
-				res.adj[adjacency].add(v);
-				// Set parent of adjacency to vertex v
-				res.setData(adjacency, PARENT, v);
-				dfsVisit(res, adjacency);
-			}
-		}
-		// Blacken vertex v
-		res.setData(v, COLOR, BLACK);
-		// Set finish time for v
-		res.setData(v, FINISH_TIME, ++time);
-	}
-	
-	private void dfsVisit(LinkedListGraph res, int v, int treeNum) {
-		res.setData(v, DISCOVERY_TIME, ++time);
-		res.setData(v, COLOR, GRAY);
-		res.setData(v, TREE_NUMBER, treeNum);
-		
-		ListIterator<Integer> it = adj[v].listIterator();
-		int adjacency;
-		while (it.hasNext()) {
-			adjacency = it.next();
-			if (res.getData(adjacency, COLOR) == WHITE) {
-				// Insert edge into result graph
-				res.adj[v].add(adjacency);
-				res.adj[adjacency].add(v);
-				// Set parent of adjacency to vertex v
-				res.setData(adjacency, PARENT, v);
-				dfsVisit(res, adjacency, treeNum);
-			}
-		}
-		// Blacken vertex v
-		res.setData(v, COLOR, BLACK);
-		// Set finish time for v
-		res.setData(v, FINISH_TIME, ++time);
-	}
-	
-	private void dfsVisit(WeightedLinkedListGraph res, int v, int treeNum) {
-		res.setData(v, DISCOVERY_TIME, ++time);
-		res.setData(v, COLOR, GRAY);
-		res.setData(v, TREE_NUMBER, treeNum);
-		
-		ListIterator<Integer> it = adj[v].listIterator();
-		int adjacency;
-		while (it.hasNext()) {
-			adjacency = it.next();
-			if (res.getData(adjacency, COLOR) == WHITE) {
-				// Insert edge into result graph
-				res.insert(v, adjacency);
-				// Set parent of adjacency to vertex v
-				res.setData(adjacency, PARENT, v);
-				dfsVisit(res, adjacency, treeNum);
-			}
-		}
-		// Blacken vertex v
-		res.setData(v, COLOR, BLACK);
-		// Set finish time for v
-		res.setData(v, FINISH_TIME, ++time);
+		return DepthFirstSearch.forest(this, adjacency(), vArr[VERTICES_SORTED],
+				vArr[VERTEX_LOOKUP], true);
 	}
 	
 	public LinkedList<Integer> topologicalSort() {
@@ -730,44 +615,4 @@ public class LinkedListGraph extends AbstractGraph implements Graph {
 		}
 		return dfs2.depthFirstSearch(FINISH_COL, 2 * vertices(), false);
 	}
-	
-	/**
-	 * Uses insertion sort, which should in sum be faster than counting
-	 * sort if adj is small relative to the number of vertices--i.e., if the
-	 * graph is sparse.
-	 * The adjacency list (adj) is assumed to contain no duplicates
-	 * @param adj
-	 * @param orderArr
-	 */
-	private static void sortAdjacencyList(LinkedList<Integer> adj, int[] vertexLookup) {
-		final int SIZE = adj.size();
-		ListIterator<Integer> it = adj.listIterator();
-		int i;
-		
-		// Dump adj into an array
-		int[] adjArr = new int[SIZE];
-		i = 0;
-		while (it.hasNext()) {
-			adjArr[i++] = it.next();
-		}
-		
-		// Sort the array according to the ordering of vertexLookup
-		int tmp, j;
-		for (i = 1; i < SIZE; ++i) {
-			tmp = adjArr[i];
-			j = i - 1;
-			while (j >= 0 && vertexLookup[adjArr[j]] > vertexLookup[tmp]) {
-				adjArr[j + 1] = adjArr[j--];
-			}
-			adjArr[j + 1] = tmp;
-		}
-		
-		// Reset the adjacency list
-		it = adj.listIterator();
-		i = 0;
-		while (it.hasNext()) {
-			it.next();
-			it.set(adjArr[i++]);
-		}
-	}
 }
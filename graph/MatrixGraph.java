@@ -4,56 +4,70 @@
 package graph;
 
 /**
+ * The adjacency matrix is packed into bits: row i is an array of
+ * longs in which bit (j % 64) of word j / 64 is set iff (i, j) is an edge.
  * @author Marshall Farrier
  * @date 11/23/10
  *
  */
 public class MatrixGraph extends AbstractGraph {
+	private static final int WORD_BITS = 64;
+	private static final int LOG_WORD_BITS = 6;
 	private int e;
-	private int [][] adj;
+	private long [][] adj;
 	// no bounds checking, etc.
 	protected int adj(int i, int j) {
-		return adj[i][j];
+		return (int) (adj[i][j >>> LOG_WORD_BITS] >>> j) & 1;
+	}
+	private boolean bit(int i, int j) {
+		return (adj[i][j >>> LOG_WORD_BITS] & (1L << j)) != 0;
+	}
+	private void setBit(int i, int j) {
+		adj[i][j >>> LOG_WORD_BITS] |= 1L << j;
+	}
+	private void clearBit(int i, int j) {
+		adj[i][j >>> LOG_WORD_BITS] &= ~(1L << j);
+	}
+	// number of longs in each row
+	private static int words(int _v) {
+		return (_v + WORD_BITS - 1) >>> LOG_WORD_BITS;
 	}
 	
 // constructors
 	public MatrixGraph(int _v) {
 		super(_v);
 		e = 0;
-		adj = new int[_v][_v];
+		adj = new long[_v][words(_v)];
 	}
 	public MatrixGraph(int _v, boolean _directed) {
 		super(_v, _directed);
 		e = 0;
-		adj = new int[_v][_v];
+		adj = new long[_v][words(_v)];
 	}	
 	public MatrixGraph(int _v, boolean _directed, int _offset) {
 		super(_v, _directed, _offset);
 		e = 0;
-		adj = new int[_v][_v];	
+		adj = new long[_v][words(_v)];	
 	}
 	public MatrixGraph(int _v, boolean _directed, int _offset, int _dataFields) {
 		super(_v, _directed, _offset, _dataFields);
 		e = 0;
-		adj = new int[_v][_v];
+		adj = new long[_v][words(_v)];
 	}
 	public MatrixGraph(MatrixGraph _g) {
 		super(_g);
 		int _v = _g.vertices();
 		e = _g.e;
-		adj = new int[_v][_v];
-		int i, j;
-		for (i = 0; i < _v; ++i) {
-			for (j = 0; j < _v; ++j) {
-				adj[i][j] = _g.adj[i][j];
-			}
+		adj = new long[_v][];
+		for (int i = 0; i < _v; ++i) {
+			adj[i] = _g.adj[i].clone();
 		}
 	}
 	public MatrixGraph(LinkedListGraph _g) {
 		super(_g);
 		int _v = _g.vertices();
 		e = 0;
-		adj = new int[_v][_v];
+		adj = new long[_v][words(_v)];
 		Edge [] edges = _g.getEdges();
 		int len = edges.length;
 		for (int i = 0; i < len; ++i) {
@@ -64,7 +78,7 @@ public class MatrixGraph extends AbstractGraph {
 		super(_g);
 		int _v = _g.vertices();
 		e = 0;
-		adj = new int[_v][_v];
+		adj = new long[_v][words(_v)];
 		Edge [] edges = _g.getEdges();
 		int len = edges.length;
 		for (int i = 0; i < len; ++i) {
@@ -87,11 +101,11 @@ public class MatrixGraph extends AbstractGraph {
 		if (_from == _to && !_directed) {
 			throw new IllegalArgumentException("Self-edge not allowed in an undirected graph");
 		}
-		if (adj[_from][_to] == 1) return false;	// edge already present
+		if (bit(_from, _to)) return false;	// edge already present
 		++e;
-		adj[_from][_to] = 1;
+		setBit(_from, _to);
 		if (!_directed) {
-			adj[_to][_from] = 1;
+			setBit(_to, _from);
 		}
 		return true;
 	}
@@ -114,13 +128,13 @@ public class MatrixGraph extends AbstractGraph {
 			throw new IllegalArgumentException("Self-edge not allowed in an undirected graph");
 		}
 		boolean found = false;
-		if (adj[_from][_to] == 1) {
+		if (bit(_from, _to)) {
 			found = true;
-			adj[_from][_to] = 0;
+			clearBit(_from, _to);
 		}
 		if (found) {
 			--e;
-			if (!_directed) adj[_to][_from] = 0;
+			if (!_directed) clearBit(_to, _from);
 		}
 		return found;
 	}	
@@ -135,21 +149,19 @@ public class MatrixGraph extends AbstractGraph {
 		int _v =  vertices();
 		Edge [] result = new Edge[e];
 		if (e == 0) return result;
-		int counter = 0;
-		if (directed()) {
-			for (int i = 0; i < _v; ++i) {
-				for (int j = 0; j < _v; ++j) {
-					if (adj[i][j] == 1) {
-						result[counter++] = new Edge(i + _offset, j + _offset, charRep());
-					}
-				}
-			}
-		}
-		else {
-			int max = _v - 1;
-			for (int i = 0; i < max; ++i) {
-				for (int j = i + 1; j < _v; ++j) {
-					if (adj[i][j] == 1) {
+		int counter = 0, j, w;
+		long word;
+		final int WORDS = words(_v);
+		final boolean DIRECTED = directed();
+		for (int i = 0; i < _v; ++i) {
+			// for undirected graphs, only the upper triangle is needed
+			w = DIRECTED ? 0 : (i + 1) >>> LOG_WORD_BITS;
+			for (; w < WORDS; ++w) {
+				word = adj[i][w];
+				while (word != 0) {
+					j = (w << LOG_WORD_BITS) + Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+					if (DIRECTED || i < j) {
 						result[counter++] = new Edge(i + _offset, j + _offset, charRep());
 					}
 				}
@@ -165,16 +177,10 @@ public class MatrixGraph extends AbstractGraph {
 		if (_from < 0 || _v <= _from) {
 			throw new IllegalArgumentException("Invalid vertex");
 		}
-		int _size = 0, i;
-		for (i = 0; i < _v; ++i) {
-			if (adj[_from][i] == 1) ++_size;
-		}
-		Edge [] result = new Edge[_size];
-		int counter = 0;
-		for (i = 0; i < _v; ++i) {
-			if (adj[_from][i] == 1) {
-				result[counter++] = new Edge(_from + _offset, i + _offset, charRep());
-			}
+		int [] adjacencies = getAdjacencies(_f);
+		Edge [] result = new Edge[adjacencies.length];
+		for (int i = 0; i < adjacencies.length; ++i) {
+			result[i] = new Edge(_from + _offset, adjacencies[i], charRep());
 		}
 		return result;
 	}
@@ -191,15 +197,19 @@ public class MatrixGraph extends AbstractGraph {
 		if (_from < 0 || _v <= _from) {
 			throw new IllegalArgumentException("Invalid vertex");
 		}
-		int _size = 0, i;
-		for (i = 0; i < _v; ++i) {
-			if (adj[_from][i] == 1) ++_size;
+		final long[] ROW = adj[_from];
+		int _size = 0, w;
+		for (w = 0; w < ROW.length; ++w) {
+			_size += Long.bitCount(ROW[w]);
 		}
 		int [] result = new int[_size];
 		int counter = 0;
-		for (i = 0; i < _v; ++i) {
-			if (adj[_from][i] == 1) {
-				result[counter++] = i + _offset;
+		long word;
+		for (w = 0; w < ROW.length; ++w) {
+			word = ROW[w];
+			while (word != 0) {
+				result[counter++] = (w << LOG_WORD_BITS) + Long.numberOfTrailingZeros(word) + _offset;
+				word &= word - 1;
 			}
 		}
 		return result;
@@ -212,8 +222,7 @@ public class MatrixGraph extends AbstractGraph {
 		if (_from < 0 || _to < 0 || _from >= _v || _to >= _v) {
 			throw new IllegalArgumentException("Invalid edge for current graph");
 		}
-		if (adj[_from][_to] == 1) return true;
-		return false;
+		return bit(_from, _to);
 	}	
 	public boolean hasEdge(Edge _e) {
 		return hasEdge(_e.from(), _e.to());
@@ -222,6 +231,7 @@ public class MatrixGraph extends AbstractGraph {
 	/**
 	 * Throws an UnsupportedOperationException if calling object
 	 * is undirected.
+	 * The matrix is transposed in blocks of 64 x 64 bits.
 	 */
 	public Graph transpose() {
 		char _offset = offset();
@@ -232,20 +242,120 @@ public class MatrixGraph extends AbstractGraph {
 			throw new UnsupportedOperationException("Transpose operation trivial on undirected graphs");
 		}
 		MatrixGraph result = new MatrixGraph(_v, _directed, _offset, _d);
-		int j;
+		result.e = e;
+		result.adj = transposeBits(adj);
+		// copy vertex data
 		for (int i = 0; i < _v; ++i) {
-			// transpose edges
-			for (j = 0; j < _v; ++ j) {
-				result.adj[j][i] = adj[i][j];
-			}
-			// copy vertex data
-			for (j = 0; j < _d; ++j) {
+			for (int j = 0; j < _d; ++j) {
 				result.setData(i, j, getData(i, j));
 			}
 		}
 		return result;
 	}
 	
+	/**
+	 * Transposes a square bit matrix in blocks of 64 x 64 bits
+	 * @param rows
+	 * @return
+	 */
+	private static long[][] transposeBits(long[][] rows) {
+		final int VERTICES = rows.length;
+		final int WORDS = words(VERTICES);
+		long[][] result = new long[VERTICES][WORDS];
+		long[] block = new long[WORD_BITS];
+		int bi, bj, k, rowsI, rowsJ;
+		for (bi = 0; bi < WORDS; ++bi) {
+			rowsI = Math.min(WORD_BITS, VERTICES - (bi << LOG_WORD_BITS));
+			for (bj = 0; bj < WORDS; ++bj) {
+				// block of rows bi, columns bj
+				for (k = 0; k < rowsI; ++k) {
+					block[k] = rows[(bi << LOG_WORD_BITS) + k][bj];
+				}
+				for (; k < WORD_BITS; ++k) {
+					block[k] = 0;
+				}
+				transpose64(block);
+				// becomes block of rows bj, columns bi
+				rowsJ = Math.min(WORD_BITS, VERTICES - (bj << LOG_WORD_BITS));
+				for (k = 0; k < rowsJ; ++k) {
+					result[(bj << LOG_WORD_BITS) + k][bi] = block[k];
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Transposes in place the 64 x 64 bit matrix in which bit j
+	 * of a[i] is entry (i, j), by swapping successively smaller
+	 * off-diagonal sub-blocks (Warren, Hacker's Delight, 7-3).
+	 * @param a
+	 */
+	private static void transpose64(long[] a) {
+		long m = 0x00000000FFFFFFFFL, t;
+		int j, k;
+		for (j = 32; j != 0; j >>>= 1, m ^= m << j) {
+			for (k = 0; k < WORD_BITS; k = ((k | j) + 1) & ~j) {
+				t = ((a[k] >>> j) ^ a[k | j]) & m;
+				a[k] ^= t << j;
+				a[k | j] ^= t;
+			}
+		}
+	}
+	
+// methods inherited from AbstractGraph
+	/**
+	 * An arc is the column of the target in the bit matrix.
+	 * The view reads the matrix of this graph directly, so
+	 * the graph must not be modified while the view is in use.
+	 */
+	Adjacency adjacency() {
+		return new BitAdjacency(adj, directed(), null);
+	}
+	
+	private static class BitAdjacency implements Adjacency {
+		private final long[][] rows;
+		private final boolean directed;
+		private Adjacency reverse;
+		
+		BitAdjacency(long[][] _rows, boolean _directed, Adjacency _reverse) {
+			rows = _rows;
+			directed = _directed;
+			reverse = _directed ? _reverse : this;
+		}
+		public int vertices() { return rows.length; }
+		public boolean directed() { return directed; }
+		public int outDegree(int u) {
+			int result = 0;
+			for (long word : rows[u]) {
+				result += Long.bitCount(word);
+			}
+			return result;
+		}
+		public int firstArc(int u) {
+			return nextBit(rows[u], 0);
+		}
+		public int nextArc(int u, int arc) {
+			return nextBit(rows[u], arc + 1);
+		}
+		public int target(int u, int arc) { return arc; }
+		public Adjacency reverse() {
+			if (reverse == null) reverse = new BitAdjacency(transposeBits(rows), true, this);
+			return reverse;
+		}
+		// column of the first set bit at or after from, or NO_ARC
+		private static int nextBit(long[] row, int from) {
+			int w = from >>> LOG_WORD_BITS;
+			if (w >= row.length) return NO_ARC;
+			long word = row[w] & (-1L << from);
+			while (word == 0) {
+				if (++w == row.length) return NO_ARC;
+				word = row[w];
+			}
+			return (w << LOG_WORD_BITS) + Long.numberOfTrailingZeros(word);
+		}
+	}
+	
 	public String toString() {
 		char _offset = offset();
 		int _v =  vertices();
@@ -269,7 +379,7 @@ public class MatrixGraph extends AbstractGraph {
 			for (i = 0; i < _v; ++i) {
 				result += (char)(i + _offset) + ":";
 				for (j = 0; j < _v; ++j) {
-					result += " " + adj[i][j];
+					result += " " + adj(i, j);
 				}
 				result += "\n";
 			}
@@ -296,7 +406,7 @@ public class MatrixGraph extends AbstractGraph {
 					for (k = 0; k < width; ++k) {
 						result += " ";
 					}
-					result += adj[i][j];
+					result += adj(i, j);
 				}
 				result += "\n";
 			}
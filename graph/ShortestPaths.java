@@ -0,0 +1,147 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Single-source shortest path weights and predecessors
+ * (CLRS, p. 647), as computed by the shortest path methods of
+ * the weighted graphs.
+ * Vertices are given and returned with the offset of the graph searched.
+ * @author Marshall Farrier
+ *
+ */
+public class ShortestPaths {
+	private final char offset;
+	private final int source;
+	// no offset in either array
+	private final double[] distance;
+	private final int[] parent;
+	// null if no negative cycle was found
+	private final int[] negativeCycle;
+
+	/**
+	 * The arrays are not copied.
+	 * @param g The graph searched
+	 * @param s Source vertex (no offset)
+	 * @param _distance Double.POSITIVE_INFINITY for vertices not reached
+	 * @param _parent NIL_VERTEX for the source and vertices not reached
+	 */
+	ShortestPaths(AbstractGraph g, int s, double[] _distance, int[] _parent) {
+		this(g, s, _distance, _parent, null);
+	}
+
+	/**
+	 * The arrays are not copied.
+	 * @param g The graph searched
+	 * @param s Source vertex (no offset)
+	 * @param _distance
+	 * @param _parent
+	 * @param _negativeCycle Vertices (no offset) of a cycle of negative
+	 * weight reached from s, in the order of its edges, or null
+	 */
+	ShortestPaths(AbstractGraph g, int s, double[] _distance, int[] _parent, int[] _negativeCycle) {
+		offset = g.offset();
+		source = s;
+		distance = _distance;
+		parent = _parent;
+		negativeCycle = _negativeCycle;
+	}
+
+	public int vertices() { return distance.length; }
+
+	public int source() { return source + offset; }
+
+	/**
+	 * Weight of a shortest path from the source,
+	 * or Double.POSITIVE_INFINITY if _v was not reached.
+	 * If hasNegativeCycle(), the weights are not final.
+	 * @param _v
+	 * @return
+	 */
+	public double distance(int _v) {
+		return distance[vertex(_v)];
+	}
+
+	public boolean reached(int _v) {
+		return distance[vertex(_v)] != Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns Graph.NIL_VERTEX for the source and for vertices not reached
+	 * @param _v
+	 * @return
+	 */
+	public int parent(int _v) {
+		int p = parent[vertex(_v)];
+		return p == Graph.NIL_VERTEX ? p : p + offset;
+	}
+
+	/**
+	 * The vertices of a shortest path from the source to _v, beginning
+	 * with the source and ending with _v.
+	 * Empty if _v was not reached.
+	 * @param _v
+	 * @return
+	 */
+	public int[] pathTo(int _v) {
+		int v = vertex(_v);
+		if (distance[v] == Double.POSITIVE_INFINITY) return new int[0];
+		int length = 1, u;
+		for (u = v; parent[u] != Graph.NIL_VERTEX; u = parent[u]) {
+			if (++length > parent.length) {
+				throw new IllegalStateException("Predecessors contain a cycle");
+			}
+		}
+		int[] result = new int[length];
+		for (u = v; length > 0; u = parent[u]) {
+			result[--length] = u + offset;
+		}
+		return result;
+	}
+
+	/**
+	 * Whether the search found a cycle of negative weight reached from
+	 * the source, in which case some vertices have no shortest path
+	 * @return
+	 */
+	public boolean hasNegativeCycle() { return negativeCycle != null; }
+
+	/**
+	 * The vertices of a cycle of negative weight reached from the source,
+	 * in the order of its edges, the last vertex having an edge to the
+	 * first. Empty if hasNegativeCycle() is false.
+	 * @return
+	 */
+	public int[] negativeCycle() {
+		if (negativeCycle == null) return new int[0];
+		int[] result = negativeCycle.clone();
+		for (int i = 0; i < result.length; ++i) {
+			result[i] += offset;
+		}
+		return result;
+	}
+
+	/**
+	 * result[u - offset] is the distance of vertex u.
+	 * The array is shared with this object and must not be modified.
+	 * @return
+	 */
+	public double[] distanceArray() { return distance; }
+
+	/**
+	 * result[u - offset] is the parent of vertex u, without offset,
+	 * or NIL_VERTEX.
+	 * The array is shared with this object and must not be modified.
+	 * @return
+	 */
+	public int[] parentArray() { return parent; }
+
+	private int vertex(int _v) {
+		int v = _v - offset;
+		if (v < 0 || distance.length <= v) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return v;
+	}
+}
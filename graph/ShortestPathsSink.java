@@ -0,0 +1,21 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Receives the shortest paths from each source in turn, as produced by
+ * the all-pairs shortest path methods that stream their results rather
+ * than keep a matrix of distances
+ * @author Marshall Farrier
+ *
+ */
+public interface ShortestPathsSink {
+	/**
+	 * Called once for each source vertex, possibly from several threads
+	 * at once. The arrays of paths are reused for another source once
+	 * this method returns, so anything needed later must be copied.
+	 * @param paths
+	 */
+	public void accept(ShortestPaths paths);
+}
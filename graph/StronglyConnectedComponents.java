@@ -0,0 +1,520 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Strongly connected components over an Adjacency view, shared by the
+ * graph representations. Vertices are internal (no offset), and
+ * components are given as an array holding the component number
+ * of each vertex.
+ * @author Marshall Farrier
+ *
+ */
+final class StronglyConnectedComponents {
+	private static final int UNVISITED = 0;
+	// labels for the parallel algorithm; other labels are partition numbers
+	private static final int DONE = -1;
+	private static final int LIVE = 0;
+	// matches no label
+	private static final int NONE = Integer.MIN_VALUE;
+	// a forward-backward step must remove at least 1 / MIN_PROGRESS of a partition
+	private static final int MIN_PROGRESS = 16;
+	// most vertices considered in choosing a pivot
+	private static final int PIVOT_SAMPLES = 16;
+
+	private StronglyConnectedComponents() {}
+
+	/**
+	 * Tarjan's algorithm (CLRS, problem 22-2 and "Depth-first search and
+	 * linear graph algorithms", 1972), in a single depth-first pass
+	 * without building the transpose.
+	 * The search is iterative: call holds the path of the search from
+	 * its root and arc[u] is the next arc of u to explore, so the depth
+	 * of the graph is not limited by the thread stack.
+	 * Components are numbered in the order in which they are completed,
+	 * which is a reverse topological order of the component graph:
+	 * every edge between components goes from a higher number to a lower.
+	 * @param g
+	 * @return
+	 */
+	static int[] tarjan(Adjacency g) {
+		final int VERTICES = g.vertices();
+		// index[u] is the discovery order of u, starting with 1
+		int[] index = new int[VERTICES];
+		int[] low = new int[VERTICES];
+		int[] component = new int[VERTICES];
+		// vertices visited but not yet assigned to a component
+		int[] stack = new int[VERTICES];
+		int[] call = new int[VERTICES];
+		int[] arc = new int[VERTICES];
+		int r, u, v, a, w, top, sp = 0, next = 1, components = 0;
+
+		for (u = 0; u < VERTICES; ++u) {
+			component[u] = -1;
+		}
+		for (r = 0; r < VERTICES; ++r) {
+			if (index[r] != UNVISITED) continue;
+			top = 0;
+			call[0] = r;
+			index[r] = low[r] = next++;
+			stack[sp++] = r;
+			arc[r] = g.firstArc(r);
+			while (top >= 0) {
+				u = call[top];
+				a = arc[u];
+				if (a != Adjacency.NO_ARC) {
+					arc[u] = g.nextArc(u, a);
+					v = g.target(u, a);
+					if (index[v] == UNVISITED) {
+						index[v] = low[v] = next++;
+						stack[sp++] = v;
+						arc[v] = g.firstArc(v);
+						call[++top] = v;
+					}
+					// v is still on the stack
+					else if (component[v] < 0 && index[v] < low[u]) {
+						low[u] = index[v];
+					}
+				}
+				else {
+					if (low[u] == index[u]) {
+						// u is the root of a component
+						do {
+							w = stack[--sp];
+							component[w] = components;
+						} while (w != u);
+						++components;
+					}
+					if (--top >= 0 && low[u] < low[call[top]]) {
+						low[call[top]] = low[u];
+					}
+				}
+			}
+		}
+		return component;
+	}
+
+	/**
+	 * Parallel strongly connected components in pool, in two phases:
+	 * 1. Trimming: a vertex with no live in-edges or no live out-edges is
+	 * a component by itself and is removed, which may leave other vertices
+	 * without live in- or out-edges. Removal proceeds in parallel levels
+	 * from the vertices with in- or out-degree 0.
+	 * 2. Forward-backward (Fleischer, Hendrickson and Pinar, 2000):
+	 * the vertices reached both forward and backward from a pivot form its
+	 * component, and the vertices reached only forward, only backward or
+	 * neither are split into 3 independent partitions. A task goes on with
+	 * the largest of them itself and forks the other two, each of which has
+	 * at most half the vertices, so tasks are nested at most lg V deep.
+	 * Each reachability search is level-synchronous, with levels larger
+	 * than threshold split among tasks. Partitions of at most threshold
+	 * vertices are finished sequentially by Tarjan's algorithm restricted
+	 * to the partition, as is a partition from which a step removes less
+	 * than 1 / MIN_PROGRESS of the vertices, such as a chain of small
+	 * cycles, which forward-backward would peel one cycle at a time in
+	 * quadratic time.
+	 * Each vertex carries a label: the partition it belongs to, or DONE
+	 * once its component is known. Labels are changed only with
+	 * compareAndSet, and partition numbers are never reused, so a task
+	 * never mistakes a vertex of another partition for one of its own.
+	 * The vertices of each partition occupy a range of Shared.list, which
+	 * a step rearranges in place into the ranges of the new partitions.
+	 * Component numbers are assigned in the order in which components are
+	 * found and so are not in topological order and may differ between runs.
+	 * @param g Must not be modified during the computation
+	 * @param pool
+	 * @param threshold
+	 * @return The component number of each vertex
+	 */
+	static int[] parallel(Adjacency g, ForkJoinPool pool, int threshold) {
+		final int VERTICES = g.vertices();
+		final Adjacency REVERSE = g.reverse();
+		Shared sh = new Shared(g, REVERSE, VERTICES, threshold);
+		int[] list = sh.list;
+		int n = 0, u, d;
+
+		// Phase 1: trimming
+		AtomicIntegerArray inDegree = new AtomicIntegerArray(VERTICES);
+		AtomicIntegerArray outDegree = new AtomicIntegerArray(VERTICES);
+		for (u = 0; u < VERTICES; ++u) {
+			d = g.outDegree(u);
+			outDegree.set(u, d);
+			inDegree.set(u, REVERSE.outDegree(u));
+			if (d == 0 || inDegree.get(u) == 0) {
+				sh.label.set(u, DONE);
+				sh.component[u] = sh.components.getAndIncrement();
+				list[n++] = u;
+			}
+		}
+		AtomicInteger tail = new AtomicInteger(n);
+		int lo = 0, hi = n;
+		while (lo < hi) {
+			pool.invoke(new TrimLevel(sh, inDegree, outDegree, list, lo, hi, tail));
+			lo = hi;
+			hi = tail.get();
+		}
+		inDegree = null;
+		outDegree = null;
+
+		// Phase 2: forward-backward on the vertices remaining
+		n = 0;
+		for (u = 0; u < VERTICES; ++u) {
+			if (sh.label.get(u) == LIVE) list[n++] = u;
+		}
+		pool.invoke(new ForwardBackward(sh, 0, n, LIVE));
+		return sh.component;
+	}
+
+	// state common to all tasks of one run of parallel()
+	private static class Shared {
+		final Adjacency g;
+		final Adjacency reverse;
+		final int threshold;
+		final AtomicIntegerArray label;
+		// written only by the task that sets the label of the vertex to DONE
+		final int[] component;
+		final AtomicInteger components = new AtomicInteger();
+		final AtomicInteger partitions = new AtomicInteger(LIVE + 1);
+		// the vertices of each partition, in a range owned by its task
+		final int[] list;
+		// scratch space, each task using only the range of its partition in list
+		final int[] queue;
+		// for restricted Tarjan, each entry used only by the task owning the vertex
+		final int[] index;
+		final int[] low;
+		final int[] arc;
+
+		Shared(Adjacency _g, Adjacency _reverse, int vertices, int _threshold) {
+			g = _g;
+			reverse = _reverse;
+			threshold = _threshold;
+			label = new AtomicIntegerArray(vertices);
+			component = new int[vertices];
+			list = new int[vertices];
+			queue = new int[vertices];
+			index = new int[vertices];
+			low = new int[vertices];
+			arc = new int[vertices];
+		}
+	}
+
+	/**
+	 * Removes the vertices list[lo] through list[hi - 1] from the live
+	 * degrees of their neighbors, appending any neighbor left without
+	 * live in- or out-edges to list as a component by itself
+	 */
+	private static class TrimLevel extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Shared sh;
+		private final AtomicIntegerArray inDegree;
+		private final AtomicIntegerArray outDegree;
+		private final int[] list;
+		private final int lo;
+		private final int hi;
+		private final AtomicInteger tail;
+
+		TrimLevel(Shared _sh, AtomicIntegerArray _inDegree, AtomicIntegerArray _outDegree,
+				int[] _list, int _lo, int _hi, AtomicInteger _tail) {
+			sh = _sh;
+			inDegree = _inDegree;
+			outDegree = _outDegree;
+			list = _list;
+			lo = _lo;
+			hi = _hi;
+			tail = _tail;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > sh.threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new TrimLevel(sh, inDegree, outDegree, list, lo, mid, tail),
+						new TrimLevel(sh, inDegree, outDegree, list, mid, hi, tail));
+				return;
+			}
+			IntBuffer trimmed = new IntBuffer(hi - lo);
+			int i, u, v, a;
+			for (i = lo; i < hi; ++i) {
+				u = list[i];
+				for (a = sh.g.firstArc(u); a != Adjacency.NO_ARC; a = sh.g.nextArc(u, a)) {
+					v = sh.g.target(u, a);
+					if (sh.label.get(v) == LIVE && inDegree.decrementAndGet(v) == 0) {
+						trim(v, trimmed);
+					}
+				}
+				for (a = sh.reverse.firstArc(u); a != Adjacency.NO_ARC; a = sh.reverse.nextArc(u, a)) {
+					v = sh.reverse.target(u, a);
+					if (sh.label.get(v) == LIVE && outDegree.decrementAndGet(v) == 0) {
+						trim(v, trimmed);
+					}
+				}
+			}
+			trimmed.copyTo(list, tail);
+		}
+
+		private void trim(int v, IntBuffer trimmed) {
+			if (sh.label.compareAndSet(v, LIVE, DONE)) {
+				sh.component[v] = sh.components.getAndIncrement();
+				trimmed.add(v);
+			}
+		}
+	}
+
+	/**
+	 * Finds the components of the partition consisting of the vertices
+	 * list[lo] through list[hi - 1], all labelled p
+	 */
+	private static class ForwardBackward extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Shared sh;
+		private final int lo;
+		private final int hi;
+		private final int p;
+
+		ForwardBackward(Shared _sh, int _lo, int _hi, int _p) {
+			sh = _sh;
+			lo = _lo;
+			hi = _hi;
+			p = _p;
+		}
+
+		@Override
+		protected void compute() {
+			final int[] LIST = sh.list;
+			final int[] QUEUE = sh.queue;
+			ArrayList<ForwardBackward> forked = new ArrayList<ForwardBackward>();
+			// the partition handled by this task: LIST[from] through LIST[to - 1], labelled part
+			int from = lo, to = hi, part = p;
+			int n, pivot, forward, backward, c, i, v, l, f, b, r, fi, bi, ri;
+			int[] start = new int[3], end = new int[3], labels = new int[3];
+			int largest, k;
+
+			while ((n = to - from) > 0) {
+				if (n <= sh.threshold) {
+					restrictedTarjan(from, to, part);
+					break;
+				}
+				pivot = pivot(from, to);
+				forward = sh.partitions.getAndIncrement();
+				backward = sh.partitions.getAndIncrement();
+
+				// vertices reachable from pivot are relabelled forward
+				sh.label.set(pivot, forward);
+				reach(sh.g, pivot, from, part, forward, NONE, NONE);
+				// vertices reaching pivot: relabelled DONE if also reachable from it, else backward
+				sh.label.set(pivot, DONE);
+				reach(sh.reverse, pivot, from, part, backward, forward, DONE);
+
+				// the component of pivot is done, and the rest is split by label
+				c = sh.components.getAndIncrement();
+				f = b = r = 0;
+				for (i = from; i < to; ++i) {
+					l = sh.label.get(LIST[i]);
+					if (l == forward) ++f;
+					else if (l == backward) ++b;
+					else if (l == part) ++r;
+				}
+				fi = from;
+				bi = from + f;
+				ri = bi + b;
+				for (i = from; i < to; ++i) {
+					v = LIST[i];
+					l = sh.label.get(v);
+					if (l == DONE) sh.component[v] = c;
+					else if (l == forward) QUEUE[fi++] = v;
+					else if (l == backward) QUEUE[bi++] = v;
+					else QUEUE[ri++] = v;
+				}
+				System.arraycopy(QUEUE, from, LIST, from, f + b + r);
+				start[0] = from;
+				end[0] = start[1] = from + f;
+				end[1] = start[2] = from + f + b;
+				end[2] = from + f + b + r;
+				labels[0] = forward;
+				labels[1] = backward;
+				labels[2] = part;
+
+				// go on with the largest part here, forking the others
+				largest = 0;
+				for (k = 1; k < 3; ++k) {
+					if (end[k] - start[k] > end[largest] - start[largest]) largest = k;
+				}
+				for (k = 0; k < 3; ++k) {
+					if (k != largest && end[k] > start[k]) {
+						forked.add(new ForwardBackward(sh, start[k], end[k], labels[k]));
+						forked.get(forked.size() - 1).fork();
+					}
+				}
+				from = start[largest];
+				to = end[largest];
+				part = labels[largest];
+				if (to - from > n - n / MIN_PROGRESS) {
+					restrictedTarjan(from, to, part);
+					break;
+				}
+			}
+			for (i = forked.size() - 1; i >= 0; --i) {
+				forked.get(i).join();
+			}
+		}
+
+		/**
+		 * The vertex of greatest product of in- and out-degree among at
+		 * most PIVOT_SAMPLES of list[from] through list[to - 1], spread
+		 * evenly, as a vertex of high degree is more likely to lie in a
+		 * large component
+		 */
+		private int pivot(int from, int to) {
+			final int STEP = Math.max(1, (to - from) / PIVOT_SAMPLES);
+			int result = sh.list[from], i, v;
+			long best = -1, degrees;
+			for (i = from; i < to; i += STEP) {
+				v = sh.list[i];
+				degrees = (long) sh.g.outDegree(v) * sh.reverse.outDegree(v);
+				if (degrees > best) {
+					best = degrees;
+					result = v;
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Breadth-first search in a from start, which has already been
+		 * relabelled, through vertices labelled fromA or fromB, which are
+		 * relabelled toA or toB respectively. The queue is kept in
+		 * sh.queue from base on, as only vertices of the partition are reached.
+		 */
+		private void reach(Adjacency a, int start, int base, int fromA, int toA, int fromB, int toB) {
+			sh.queue[base] = start;
+			AtomicInteger tail = new AtomicInteger(base + 1);
+			int lo = base, hi = base + 1;
+			while (lo < hi) {
+				new ReachLevel(sh, a, sh.queue, lo, hi, tail, fromA, toA, fromB, toB).invoke();
+				lo = hi;
+				hi = tail.get();
+			}
+		}
+
+		/**
+		 * Tarjan's algorithm as in tarjan(), on the subgraph induced by
+		 * the partition list[from] through list[to - 1], labelled part.
+		 * A vertex of the partition is on the stack iff it has been visited
+		 * and is still labelled part.
+		 */
+		private void restrictedTarjan(int from, int to, int part) {
+			final int[] INDEX = sh.index;
+			final int[] LOW = sh.low;
+			final int[] ARC = sh.arc;
+			final Adjacency G = sh.g;
+			// the range of the partition in sh.queue serves as the stack
+			final int[] STACK = sh.queue;
+			int[] call = new int[to - from];
+			int i, r, u, v, a, w, c, top, sp = from, next = 1;
+
+			for (i = from; i < to; ++i) {
+				r = sh.list[i];
+				if (INDEX[r] != UNVISITED) continue;
+				top = 0;
+				call[0] = r;
+				INDEX[r] = LOW[r] = next++;
+				STACK[sp++] = r;
+				ARC[r] = G.firstArc(r);
+				while (top >= 0) {
+					u = call[top];
+					a = ARC[u];
+					if (a != Adjacency.NO_ARC) {
+						ARC[u] = G.nextArc(u, a);
+						v = G.target(u, a);
+						if (sh.label.get(v) != part) continue;
+						if (INDEX[v] == UNVISITED) {
+							INDEX[v] = LOW[v] = next++;
+							STACK[sp++] = v;
+							ARC[v] = G.firstArc(v);
+							call[++top] = v;
+						}
+						else if (INDEX[v] < LOW[u]) {
+							LOW[u] = INDEX[v];
+						}
+					}
+					else {
+						if (LOW[u] == INDEX[u]) {
+							c = sh.components.getAndIncrement();
+							do {
+								w = STACK[--sp];
+								sh.label.set(w, DONE);
+								sh.component[w] = c;
+							} while (w != u);
+						}
+						if (--top >= 0 && LOW[u] < LOW[call[top]]) {
+							LOW[call[top]] = LOW[u];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Explores the adjacencies in a of list[lo] through list[hi - 1],
+	 * relabelling and appending to list the vertices labelled fromA or fromB
+	 */
+	private static class ReachLevel extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Shared sh;
+		private final Adjacency a;
+		private final int[] list;
+		private final int lo;
+		private final int hi;
+		private final AtomicInteger tail;
+		private final int fromA;
+		private final int toA;
+		private final int fromB;
+		private final int toB;
+
+		ReachLevel(Shared _sh, Adjacency _a, int[] _list, int _lo, int _hi, AtomicInteger _tail,
+				int _fromA, int _toA, int _fromB, int _toB) {
+			sh = _sh;
+			a = _a;
+			list = _list;
+			lo = _lo;
+			hi = _hi;
+			tail = _tail;
+			fromA = _fromA;
+			toA = _toA;
+			fromB = _fromB;
+			toB = _toB;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > sh.threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new ReachLevel(sh, a, list, lo, mid, tail, fromA, toA, fromB, toB),
+						new ReachLevel(sh, a, list, mid, hi, tail, fromA, toA, fromB, toB));
+				return;
+			}
+			IntBuffer reached = new IntBuffer(hi - lo);
+			int i, u, v, arc, l;
+			for (i = lo; i < hi; ++i) {
+				u = list[i];
+				for (arc = a.firstArc(u); arc != Adjacency.NO_ARC; arc = a.nextArc(u, arc)) {
+					v = a.target(u, arc);
+					l = sh.label.get(v);
+					if ((l == fromA && sh.label.compareAndSet(v, fromA, toA))
+							|| (l == fromB && sh.label.compareAndSet(v, fromB, toB))) {
+						reached.add(v);
+					}
+				}
+			}
+			reached.copyTo(list, tail);
+		}
+	}
+}
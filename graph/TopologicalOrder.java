@@ -0,0 +1,104 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Topological order of a directed acyclic graph in which the vertices
+ * are grouped by level: a vertex with no incoming edges has level 0,
+ * and any other vertex has level one more than the highest level of
+ * the vertices with edges into it. Every edge therefore leads to a
+ * higher level, and the vertices of one level are independent of each other.
+ * Vertices are given and returned with the offset of the graph sorted.
+ * @author Marshall Farrier
+ *
+ */
+public class TopologicalOrder {
+	private final char offset;
+	// no offset in any of the arrays
+	private final int[] order;
+	private final int[] level;
+	// vertices of level l are order[levelStart[l]] through order[levelStart[l + 1] - 1]
+	private final int[] levelStart;
+
+	/**
+	 * The arrays are not copied.
+	 * @param g The graph sorted
+	 * @param _order Vertices in ascending order of level
+	 * @param _level
+	 */
+	TopologicalOrder(AbstractGraph g, int[] _order, int[] _level) {
+		final int VERTICES = _order.length;
+		offset = g.offset();
+		order = _order;
+		level = _level;
+		int levels = VERTICES == 0 ? 0 : level[order[VERTICES - 1]] + 1;
+		levelStart = new int[levels + 1];
+		for (int i = 0; i < VERTICES; ++i) {
+			++levelStart[level[order[i]] + 1];
+		}
+		for (int l = 0; l < levels; ++l) {
+			levelStart[l + 1] += levelStart[l];
+		}
+	}
+
+	public int vertices() { return order.length; }
+
+	/**
+	 * Number of levels, which is one more than the number of
+	 * edges on a longest path
+	 * @return
+	 */
+	public int levels() { return levelStart.length - 1; }
+
+	/**
+	 * The vertex in position i of the order
+	 * @param i
+	 * @return
+	 */
+	public int get(int i) {
+		if (i < 0 || order.length <= i) {
+			throw new IllegalArgumentException("Invalid position");
+		}
+		return order[i] + offset;
+	}
+
+	public int level(int _v) {
+		int v = _v - offset;
+		if (v < 0 || level.length <= v) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return level[v];
+	}
+
+	/**
+	 * The vertices of level l
+	 * @param l
+	 * @return
+	 */
+	public int[] verticesAtLevel(int l) {
+		if (l < 0 || levels() <= l) {
+			throw new IllegalArgumentException("Invalid level");
+		}
+		return withOffset(Arrays.copyOfRange(order, levelStart[l], levelStart[l + 1]));
+	}
+
+	/**
+	 * All vertices in topological order
+	 * @return
+	 */
+	public int[] toArray() {
+		return withOffset(order.clone());
+	}
+
+	private int[] withOffset(int[] vertices) {
+		if (offset != 0) {
+			for (int i = 0; i < vertices.length; ++i) {
+				vertices[i] += offset;
+			}
+		}
+		return vertices;
+	}
+}
@@ -0,0 +1,185 @@
+/**
+ * @file
+ */
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Topological sorts by in-degree (Kahn, "Topological sorting of large
+ * networks", 1962) over an Adjacency view, shared by the graph
+ * representations. Vertices are internal (no offset).
+ * The vertices with no remaining in-edges form a wavefront, which is
+ * removed as a whole, so the order produced lists the vertices level
+ * by level as described in TopologicalOrder.
+ * @author Marshall Farrier
+ *
+ */
+final class TopologicalSort {
+	private TopologicalSort() {}
+
+	/**
+	 * Sequential sort in time O(V + E).
+	 * order is also used as the queue of vertices to process.
+	 * @param g
+	 * @param order Filled in with the vertices sorted, length g.vertices()
+	 * @param level Filled in with the level of each vertex, length g.vertices()
+	 * @return The number of vertices sorted, which is less than
+	 * g.vertices() iff the graph has a cycle
+	 */
+	static int kahn(Adjacency g, int[] order, int[] level) {
+		final int VERTICES = g.vertices();
+		int[] inDegree = new int[VERTICES];
+		int u, v, a, head = 0, tail = 0;
+		for (u = 0; u < VERTICES; ++u) {
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				++inDegree[g.target(u, a)];
+			}
+		}
+		for (u = 0; u < VERTICES; ++u) {
+			if (inDegree[u] == 0) {
+				level[u] = 0;
+				order[tail++] = u;
+			}
+		}
+		while (head < tail) {
+			u = order[head++];
+			for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+				v = g.target(u, a);
+				if (--inDegree[v] == 0) {
+					// u is the last predecessor of v to be removed and so has the highest level
+					level[v] = level[u] + 1;
+					order[tail++] = v;
+				}
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Parallel sort in pool. In-degrees are counted by tasks over ranges
+	 * of vertices, and each wavefront is split among tasks of at most
+	 * threshold vertices, which decrement in-degrees atomically.
+	 * The task that brings an in-degree to 0 appends the vertex to the
+	 * next wavefront. Vertices within a level may be in any order.
+	 * @param g Must not be modified during the sort
+	 * @param order
+	 * @param level
+	 * @param pool
+	 * @param threshold
+	 * @return The number of vertices sorted, which is less than
+	 * g.vertices() iff the graph has a cycle
+	 */
+	static int parallel(Adjacency g, int[] order, int[] level, ForkJoinPool pool, int threshold) {
+		final int VERTICES = g.vertices();
+		AtomicIntegerArray inDegree = new AtomicIntegerArray(VERTICES);
+		pool.invoke(new CountInDegrees(g, inDegree, 0, VERTICES, threshold));
+		int u, lo = 0, hi = 0, l = 0;
+		for (u = 0; u < VERTICES; ++u) {
+			if (inDegree.get(u) == 0) {
+				level[u] = 0;
+				order[hi++] = u;
+			}
+		}
+		AtomicInteger tail = new AtomicInteger(hi);
+		while (lo < hi) {
+			pool.invoke(new RemoveLevel(g, inDegree, order, level, ++l, lo, hi, tail, threshold));
+			lo = hi;
+			hi = tail.get();
+		}
+		return hi;
+	}
+
+	// counts the in-edges from vertices lo through hi - 1
+	private static class CountInDegrees extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Adjacency g;
+		private final AtomicIntegerArray inDegree;
+		private final int lo;
+		private final int hi;
+		private final int threshold;
+
+		CountInDegrees(Adjacency _g, AtomicIntegerArray _inDegree, int _lo, int _hi, int _threshold) {
+			g = _g;
+			inDegree = _inDegree;
+			lo = _lo;
+			hi = _hi;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new CountInDegrees(g, inDegree, lo, mid, threshold),
+						new CountInDegrees(g, inDegree, mid, hi, threshold));
+				return;
+			}
+			for (int u = lo; u < hi; ++u) {
+				for (int a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+					inDegree.incrementAndGet(g.target(u, a));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the wavefront order[lo] through order[hi - 1], appending
+	 * the vertices left without in-edges to order as level l
+	 */
+	private static class RemoveLevel extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Adjacency g;
+		private final AtomicIntegerArray inDegree;
+		private final int[] order;
+		private final int[] level;
+		private final int l;
+		private final int lo;
+		private final int hi;
+		private final AtomicInteger tail;
+		private final int threshold;
+
+		RemoveLevel(Adjacency _g, AtomicIntegerArray _inDegree, int[] _order, int[] _level, int _l,
+				int _lo, int _hi, AtomicInteger _tail, int _threshold) {
+			g = _g;
+			inDegree = _inDegree;
+			order = _order;
+			level = _level;
+			l = _l;
+			lo = _lo;
+			hi = _hi;
+			tail = _tail;
+			threshold = _threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > threshold) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new RemoveLevel(g, inDegree, order, level, l, lo, mid, tail, threshold),
+						new RemoveLevel(g, inDegree, order, level, l, mid, hi, tail, threshold));
+				return;
+			}
+			int[] ready = new int[Math.max(hi - lo, 16)];
+			int count = 0, i, u, v, a;
+			for (i = lo; i < hi; ++i) {
+				u = order[i];
+				for (a = g.firstArc(u); a != Adjacency.NO_ARC; a = g.nextArc(u, a)) {
+					v = g.target(u, a);
+					if (inDegree.decrementAndGet(v) == 0) {
+						level[v] = l;
+						if (count == ready.length) ready = Arrays.copyOf(ready, 2 * count);
+						ready[count++] = v;
+					}
+				}
+			}
+			if (count > 0) {
+				System.arraycopy(ready, 0, order, tail.getAndAdd(count), count);
+			}
+		}
+	}
+}
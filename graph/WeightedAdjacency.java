@@ -0,0 +1,18 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * Adjacency view that also gives the weight of each arc
+ * @author Marshall Farrier
+ *
+ */
+interface WeightedAdjacency extends Adjacency {
+	double weight(int u, int arc);
+
+	/**
+	 * The reverse carries the weights of the original arcs
+	 */
+	WeightedAdjacency reverse();
+}
@@ -0,0 +1,100 @@
+/**
+ * @file
+ */
+package graph;
+
+/**
+ * CsrAdjacency with a weight for each arc in a parallel array.
+ * Used to hold the reverse of weighted views.
+ * The arrays are shared, not copied, and must not be modified.
+ * @author Marshall Farrier
+ *
+ */
+class WeightedCsrAdjacency implements WeightedAdjacency {
+	private final boolean directed;
+	private final int[] offsets;
+	private final int[] targets;
+	private final double[] weights;
+	// built on first call to reverse()
+	private WeightedAdjacency reverse;
+
+	WeightedCsrAdjacency(boolean _directed, int[] _offsets, int[] _targets, double[] _weights) {
+		directed = _directed;
+		offsets = _offsets;
+		targets = _targets;
+		weights = _weights;
+		reverse = _directed ? null : this;
+	}
+
+	// used by reverseOf() so that the reverse of the reverse is g
+	private WeightedCsrAdjacency(int[] _offsets, int[] _targets, double[] _weights,
+			WeightedAdjacency g) {
+		directed = true;
+		offsets = _offsets;
+		targets = _targets;
+		weights = _weights;
+		reverse = g;
+	}
+
+	/**
+	 * Builds the reverse of g with a counting sort on the targets,
+	 * as in CsrAdjacency.reverseOf()
+	 * @param g
+	 * @return
+	 */
+	static WeightedCsrAdjacency reverseOf(WeightedAdjacency g) {
+		final int VERTICES = g.vertices();
+		int[] rOffsets = new int[VERTICES + 1];
+		int u, a, v, p;
+		for (u = 0; u < VERTICES; ++u) {
+			for (a = g.firstArc(u); a != NO_ARC; a = g.nextArc(u, a)) {
+				++rOffsets[g.target(u, a) + 1];
+			}
+		}
+		for (u = 0; u < VERTICES; ++u) {
+			rOffsets[u + 1] += rOffsets[u];
+		}
+		int[] rTargets = new int[rOffsets[VERTICES]];
+		double[] rWeights = new double[rTargets.length];
+		int[] pos = new int[VERTICES];
+		System.arraycopy(rOffsets, 0, pos, 0, VERTICES);
+		for (u = 0; u < VERTICES; ++u) {
+			for (a = g.firstArc(u); a != NO_ARC; a = g.nextArc(u, a)) {
+				v = g.target(u, a);
+				p = pos[v]++;
+				rTargets[p] = u;
+				rWeights[p] = g.weight(u, a);
+			}
+		}
+		return new WeightedCsrAdjacency(rOffsets, rTargets, rWeights, g);
+	}
+
+	public int vertices() { return offsets.length - 1; }
+
+	public boolean directed() { return directed; }
+
+	public int outDegree(int u) {
+		return offsets[u + 1] - offsets[u];
+	}
+
+	public int firstArc(int u) {
+		return offsets[u] < offsets[u + 1] ? offsets[u] : NO_ARC;
+	}
+
+	public int nextArc(int u, int arc) {
+		return arc + 1 < offsets[u + 1] ? arc + 1 : NO_ARC;
+	}
+
+	public int target(int u, int arc) {
+		return targets[arc];
+	}
+
+	public double weight(int u, int arc) {
+		return weights[arc];
+	}
+
+	public WeightedAdjacency reverse() {
+		if (reverse == null) reverse = reverseOf(this);
+		return reverse;
+	}
+}
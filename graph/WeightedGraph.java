@@ -3,6 +3,8 @@
  */
 package graph;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * @author Marshall Farrier
  * @date 11/23/10
@@ -25,4 +27,16 @@ public interface WeightedGraph {
 	public double getVertexWeight(int _v);
 	public boolean insert(int _f, int _t, double _w);
 	public boolean insert(Edge _e, double _w);
+	// Dijkstra, for graphs without negative edge weights
+	public ShortestPaths shortestPathsDijkstra(int _s);
+	public ShortestPaths shortestPathsDijkstra(int _s, int _t);
+	public int[] shortestPathDijkstraBidirectional(int _s, int _t);
+	// Bellman-Ford, for graphs that may have negative edge weights
+	public ShortestPaths shortestPathsBellmanFord(int _s);
+	public ShortestPaths shortestPathsSpfa(int _s);
+	public ShortestPaths shortestPathsBellmanFordParallel(int _s);
+	public ShortestPaths shortestPathsBellmanFordParallel(int _s, ForkJoinPool pool, int threshold);
+	// A*, for graphs without negative edge weights; Landmarks give the ALT heuristic
+	public ShortestPaths shortestPathAStar(int _s, int _t, Heuristic h);
+	public Landmarks landmarks(int k);
 }
@@ -5,10 +5,13 @@ package graph;
 
 import java.util.Arrays;
 import java.util.LinkedList;
-import java.util.ListIterator;
-import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
 
 /**
+ * Edges are stored as parallel primitive arrays per vertex:
+ * the i-th edge leaving u goes to target[u][i], has weight weight[u][i]
+ * and, if the graph has edge properties, property k stored in
+ * property[u][i * edgeProperties() + k].
  * @author Marshall Farrier
  * @date 11/23/10
  *
@@ -18,58 +21,115 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	private int e;	// Number of edges
 	private int edgeProperties;	// Number of edge properties	
 	
+	private static final int[] NO_TARGETS = new int[0];
+	private static final double[] NO_WEIGHTS = new double[0];
+	private static final int INITIAL_CAPACITY = 4;
 	// default weight is 1.0
-	private class EdgeTarget {
-		int v;
-		double weight;
-		int[] properties;
-		EdgeTarget(int _v) {
-			v = _v;
-			weight = 1.0;
-			if (edgeProperties > 0) properties = new int[edgeProperties];
-			else properties = null;
-		}
-		EdgeTarget(int _v, double _w) {
-			v = _v;
-			weight = _w;
-			if (edgeProperties > 0) properties = new int[edgeProperties];
-			else properties = null;
-		}
-		EdgeTarget(int vert, double wt, int[] prop) {
-			v = vert;
-			weight = wt;
-			properties = prop;
+	private static final double DEFAULT_WEIGHT = 1.0;
+
+	/**
+	 * Row u of each array is a growable buffer of which the first
+	 * degree[u] edges are in use.
+	 * property[u] is null if the graph has no edge properties.
+	 */
+	private int[][] target;
+	private double[][] weight;
+	private int[][] property;
+	private int[] degree;
+	// needed for temporary storage in several algorithms
+	private double [] vertexWeight;
+
+// edge buffer management (no offsets, no validation)
+	private void initAdjacencies(int _v) {
+		target = new int[_v][];
+		weight = new double[_v][];
+		property = new int[_v][];
+		degree = new int[_v];
+		// rows are allocated on first insertion
+		for (int i = 0; i < _v; ++i) {
+			target[i] = NO_TARGETS;
+			weight[i] = NO_WEIGHTS;
 		}
-		
-		public EdgeTarget clone() {
-			EdgeTarget et = new EdgeTarget(v, weight);
-			for (int i = 0; i < edgeProperties; ++i) {
-				et.properties[i] = this.properties[i];
+	}
+
+	private void copyAdjacencies(WeightedLinkedListGraph g, boolean copyProperties) {
+		final int VERTICES = g.vertices();
+		initAdjacencies(VERTICES);
+		for (int i = 0; i < VERTICES; ++i) {
+			degree[i] = g.degree[i];
+			if (degree[i] == 0) continue;
+			target[i] = Arrays.copyOf(g.target[i], degree[i]);
+			weight[i] = Arrays.copyOf(g.weight[i], degree[i]);
+			if (edgeProperties > 0) {
+				if (copyProperties) {
+					property[i] = Arrays.copyOf(g.property[i], degree[i] * edgeProperties);
+				}
+				else property[i] = new int[degree[i] * edgeProperties];
 			}
-			return et;
 		}
+		}
+
 		/**
-		 * Used implicitly when lists are checked using contains() method
-		 * @param et
-		 * @return
+	 * Appends an edge with all properties set to 0
+	 * @return The position of the new edge in the rows of from
 		 */
-		@Override
-		public boolean equals(Object et) {
-			return v == ((EdgeTarget) et).v;
+	private int append(int from, int to, double wt) {
+		final int SIZE = degree[from];
+		if (SIZE == target[from].length) {
+			final int CAPACITY = Math.max(INITIAL_CAPACITY, 2 * SIZE);
+			target[from] = Arrays.copyOf(target[from], CAPACITY);
+			weight[from] = Arrays.copyOf(weight[from], CAPACITY);
+			if (edgeProperties > 0) {
+				if (property[from] == null) property[from] = new int[CAPACITY * edgeProperties];
+				else property[from] = Arrays.copyOf(property[from], CAPACITY * edgeProperties);
+			}
 		}
+		target[from][SIZE] = to;
+		weight[from][SIZE] = wt;
+		if (edgeProperties > 0) {
+			// slot may have been used by a removed edge
+			Arrays.fill(property[from], SIZE * edgeProperties, (SIZE + 1) * edgeProperties, 0);
+		}
+		return degree[from]++;
 	}
-	private LinkedList<EdgeTarget> [] adj;
-	// needed for temporary storage in several algorithms
-	private double [] vertexWeight;
-	
+
+	private void append(int from, int to, double wt, int[] prop) {
+		int pos = append(from, to, wt);
+		if (prop != null && edgeProperties > 0) {
+			System.arraycopy(prop, 0, property[from], pos * edgeProperties,
+					Math.min(prop.length, edgeProperties));
+		}
+	}
+
+	private int indexOf(int from, int to) {
+		final int[] ROW = target[from];
+		final int SIZE = degree[from];
+		for (int i = 0; i < SIZE; ++i) {
+			if (ROW[i] == to) return i;
+		}
+		return -1;
+	}
+
+	// removes the edge while preserving the order of the remaining edges
+	private boolean delete(int from, int to) {
+		int i = indexOf(from, to);
+		if (i < 0) return false;
+		final int MOVED = degree[from] - i - 1;
+		System.arraycopy(target[from], i + 1, target[from], i, MOVED);
+		System.arraycopy(weight[from], i + 1, weight[from], i, MOVED);
+		if (edgeProperties > 0) {
+			System.arraycopy(property[from], (i + 1) * edgeProperties, property[from],
+					i * edgeProperties, MOVED * edgeProperties);
+		}
+		--degree[from];
+		return true;
+	}
+
 // constructors	
 	public WeightedLinkedListGraph(int _v) {
 		super(_v);
 		e = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-		}
+		initAdjacencies(_v);
 		vertexWeight = new double[_v];
 		edgeProperties = 0;
 	}
@@ -77,10 +137,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	public WeightedLinkedListGraph(int _v, boolean _directed) {
 		super(_v, _directed);
 		e = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-		}
+		initAdjacencies(_v);
 		vertexWeight = new double[_v];
 		edgeProperties = 0;
 	}
@@ -88,10 +145,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	public WeightedLinkedListGraph(int _v, boolean _directed, int _offset) {
 		super(_v, _directed, _offset);
 		e = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-		}
+		initAdjacencies(_v);
 		vertexWeight = new double[_v];
 		edgeProperties = 0;
 	}
@@ -99,10 +153,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	public WeightedLinkedListGraph(int _v, boolean _directed, int _offset, int _dataFields) {
 		super(_v, _directed, _offset, _dataFields);
 		e = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-		}
+		initAdjacencies(_v);
 		vertexWeight = new double[_v];
 		edgeProperties = 0;
 	}
@@ -113,10 +164,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 			throw new IllegalArgumentException("Number of edge properties cannot be negative");
 		}
 		e = 0;
-		adj = new LinkedList[v];
-		for (int i = 0; i < v; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-		}
+		initAdjacencies(v);
 		vertexWeight = new double[v];
 		edgeProperties = edgeProp;
 	}
@@ -126,25 +174,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	 * @param _g
 	 */
 	public WeightedLinkedListGraph(LinkedListGraph _g) {
-		super(_g);
-		int _v = vertices();
-		e = 0;
-		edgeProperties = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-		}
-		vertexWeight = new double[_v];
-		
-		// insert edges
-		Edge [] edges = _g.getEdges();
-		int len = edges.length;
-		int _offset = offset();
-		for (int i = 0; i < len; ++i) {
-			adj[edges[i].from() - _offset].add(new EdgeTarget(edges[i].to() - _offset));
-			if (!directed()) adj[edges[i].to() - _offset].add(new EdgeTarget(edges[i].from() - _offset));
-			++e;
-		}
+		this(_g, 0);
 	}
 	
 	public WeightedLinkedListGraph(LinkedListGraph g, int edgeProp) {
@@ -157,10 +187,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		final boolean DIRECTED = directed();
 		
 		edgeProperties = edgeProp;
-		adj = new LinkedList[VERTICES];
-		for (int i = 0; i < VERTICES; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-		}
+		initAdjacencies(VERTICES);
 		vertexWeight = new double[VERTICES];
 		
 		// insert edges
@@ -168,31 +195,11 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		e = edges.length;
 		int i;
 		
-		if (OFFSET == 0) {
-			if (DIRECTED) {
-				for (i = 0; i < e; ++i) {
-					adj[edges[i].from()].add(new EdgeTarget(edges[i].to()));
-				}				
-			}
-			else {
-				for (i = 0; i < e; ++i) {
-					adj[edges[i].from()].add(new EdgeTarget(edges[i].to()));
-					adj[edges[i].to()].add(new EdgeTarget(edges[i].from()));
-				}
-			}
-		}
-		else {
-			if (DIRECTED) {
 				for (i = 0; i < e; ++i) {
-					adj[edges[i].from() - OFFSET].add(new EdgeTarget(edges[i].to() - OFFSET));
-				}
+			append(edges[i].from() - OFFSET, edges[i].to() - OFFSET, DEFAULT_WEIGHT);
+			if (!DIRECTED) {
+				append(edges[i].to() - OFFSET, edges[i].from() - OFFSET, DEFAULT_WEIGHT);
 			}
-			else {
-				for (i = 0; i < e; ++i) {
-					adj[edges[i].from() - OFFSET].add(new EdgeTarget(edges[i].to() - OFFSET));
-					adj[edges[i].to() - OFFSET].add(new EdgeTarget(edges[i].from() - OFFSET));
-				}
-			}			
 		}
 	}
 	
@@ -201,25 +208,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	 * @param _g
 	 */
 	public WeightedLinkedListGraph(MatrixGraph _g) {
-		super(_g);
-		int _v = vertices();
-		e = 0;
-		edgeProperties = 0;
-		adj = new LinkedList[_v];
-		for (int i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-		}
-		vertexWeight = new double[_v];
-		
-		// insert edges
-		Edge [] edges = _g.getEdges();
-		int len = edges.length;
-		int _offset = offset();
-		for (int i = 0; i < len; ++i) {
-			adj[edges[i].from() - _offset].add(new EdgeTarget(edges[i].to() - _offset));
-			if (!directed()) adj[edges[i].to() - _offset].add(new EdgeTarget(edges[i].from() - _offset));
-			++e;
-		}
+		this(_g, 0);
 	}
 	
 	public WeightedLinkedListGraph(MatrixGraph g, int edgeProp) {
@@ -231,10 +220,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		final boolean DIRECTED = directed();
 		
 		edgeProperties = edgeProp;
-		adj = new LinkedList[VERTICES];
-		for (int i = 0; i < VERTICES; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-		}
+		initAdjacencies(VERTICES);
 		vertexWeight = new double[VERTICES];
 		
 		// insert edges
@@ -242,11 +228,10 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		final int MAX = VERTICES - 1;
 		e = g.edges();
 		
-		
 		if (DIRECTED) {
 			for (i = 0; i < VERTICES; ++i) {
 				for (j = 0; j < VERTICES; ++j) {
-					if (g.adj(i, j) != 0) adj[i].add(new EdgeTarget(j));
+					if (g.adj(i, j) != 0) append(i, j, DEFAULT_WEIGHT);
 				}
 			}				
 		}
@@ -254,8 +239,8 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 			for (i = 0; i < MAX; ++i) {
 				for (j = i + 1; j < VERTICES; ++j) {
 					if (g.adj(i, j) != 0) {
-						adj[i].add(new EdgeTarget(j));
-						adj[j].add(new EdgeTarget(i));
+						append(i, j, DEFAULT_WEIGHT);
+						append(j, i, DEFAULT_WEIGHT);
 					}
 				}
 			}
@@ -268,70 +253,42 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		final int VERTICES = vertices();
 		final int MAX = VERTICES - 1;
 		final boolean DIRECTED = directed();
-		int i, j, k;
-		int[] prop, prop2;
+		int i, j, k, pos;
 		double tmp;
 		e = g.edges();
 		edgeProperties = g.edgeProperties();
-		adj = new LinkedList[VERTICES];
+		initAdjacencies(VERTICES);
 		vertexWeight = new double[VERTICES];
 		for (i = 0; i < VERTICES; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
 			// synchronize vertex weights
 			vertexWeight[i] = g.vertexWeightNoOffset(i);
 		}		
 		
 		// Insert edges
 		if (DIRECTED) {
-			if (edgeProperties == 0) {
 				for (i = 0; i < VERTICES; ++i) {
 					for (j = 0; j < VERTICES; ++j) {
 						if (g.adj(i, j) != 0) {
-							adj[i].add(new EdgeTarget(j, g.edgeWeightNoOffset(i, j)));
-						}
-					}
-				}
-			}
-			else {
-				for (i = 0; i < VERTICES; ++i) {
-					for (j = 0; j < VERTICES; ++j) {
-						if (g.adj(i, j) != 0) {
-							prop = new int[edgeProperties];
+						pos = append(i, j, g.edgeWeightNoOffset(i, j));
 							for (k = 0; k < edgeProperties; ++k) {
-								prop[k] = g.edgePropertyNoOffset(i, j, k);
-							}
-							adj[i].add(new EdgeTarget(j, g.edgeWeightNoOffset(i, j), prop));
-														
+							property[i][pos * edgeProperties + k] = g.edgePropertyNoOffset(i, j, k);
 						}
 					}
 				}
 			}			
 		}
 		else {
-			if (edgeProperties == 0) {
-				for (i = 0; i < MAX; ++i) {
-					for (j = i + 1; j < VERTICES; ++j) {
-						if (g.adj(i, j) != 0) {
-							tmp = g.edgeWeightNoOffset(i, j);
-							adj[i].add(new EdgeTarget(j, tmp));
-							adj[j].add(new EdgeTarget(i, tmp));
-						}
-					}
-				}
-			}
-			else {
 				for (i = 0; i < MAX; ++i) {
 					for (j = i + 1; j < VERTICES; ++j) {
 						if (g.adj(i, j) != 0) {
 							tmp = g.edgeWeightNoOffset(i, j);
-							prop = new int[edgeProperties];
-							prop2 = new int[edgeProperties];
+						pos = append(i, j, tmp);
 							for (k = 0; k < edgeProperties; ++k) {
-								prop[k] = g.edgePropertyNoOffset(i, j, k);
-								prop2[k] = prop[k];
-							}
-							adj[i].add(new EdgeTarget(j, tmp, prop));
-							adj[j].add(new EdgeTarget(i, tmp, prop2));							
+							property[i][pos * edgeProperties + k] = g.edgePropertyNoOffset(i, j, k);
+						}
+						pos = append(j, i, tmp);
+						for (k = 0; k < edgeProperties; ++k) {
+							property[j][pos * edgeProperties + k] = g.edgePropertyNoOffset(i, j, k);
 						}
 					}
 				}
@@ -358,10 +315,9 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		e = g.edges();
 		edgeProperties = edgeProp;
 		
-		adj = new LinkedList[VERTICES];
+		initAdjacencies(VERTICES);
 		vertexWeight = new double[VERTICES];
 		for (i = 0; i < VERTICES; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
 			// synchronize vertex weights
 			vertexWeight[i] = g.vertexWeightNoOffset(i);
 		}
@@ -371,7 +327,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 			for (i = 0; i < VERTICES; ++i) {
 				for (j = 0; j < VERTICES; ++j) {
 					if (g.adj(i, j) != 0) {
-						adj[i].add(new EdgeTarget(j, g.edgeWeightNoOffset(i, j)));
+						append(i, j, g.edgeWeightNoOffset(i, j));
 					}
 				}
 			}
@@ -381,8 +337,8 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 				for (j = i + 1; j < VERTICES; ++j) {
 					if (g.adj(i, j) != 0) {
 						tmp = g.edgeWeightNoOffset(i, j);
-						adj[i].add(new EdgeTarget(j, tmp));
-						adj[j].add(new EdgeTarget(i, tmp));
+						append(i, j, tmp);
+						append(j, i, tmp);
 					}
 				}
 			}
@@ -391,54 +347,26 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	
 	public WeightedLinkedListGraph(WeightedLinkedListGraph _g) {
 		super(_g);
-		int _v = vertices(), i;
 		e = _g.e;
 		edgeProperties = _g.edgeProperties;
-		adj = new LinkedList[_v];
-		vertexWeight = new double[_v];
-		for (i = 0; i < _v; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-			// synchronize vertex weights
-			vertexWeight[i] = _g.vertexWeight[i];
-		}		
-		
-		// insert edges
-		ListIterator<EdgeTarget> it;
-		for (i = 0; i < _v; ++i) {
-			it = _g.adj[i].listIterator();
-			while (it.hasNext()) {
-				adj[i].add(it.next());
-			}
-		}	
+		vertexWeight = Arrays.copyOf(_g.vertexWeight, _g.vertexWeight.length);
+		copyAdjacencies(_g, true);
 	}
 	
+	/**
+	 * Resulting graph will initialize all edge properties to 0
+	 * @param g
+	 * @param edgeProp
+	 */
 	public WeightedLinkedListGraph(WeightedLinkedListGraph g, int edgeProp) {
 		super(g);
 		if (edgeProp < 0) {
 			throw new IllegalArgumentException("Number of edge properties cannot be negative");
 		}
-		final int VERTICES = vertices();
-		ListIterator<EdgeTarget> it;
-		EdgeTarget et;
-		
 		e = g.e;
 		edgeProperties = edgeProp;
-		
-		adj = new LinkedList[VERTICES];
-		vertexWeight = new double[VERTICES];
-		
-		// Copy vertex properties and edges
-		for (int i = 0; i < VERTICES; ++i) {
-			adj[i] = new LinkedList<EdgeTarget>();
-			// synchronize vertex weights
-			vertexWeight[i] = g.vertexWeight[i];
-			// Create adjacency list
-			it = g.adj[i].listIterator();
-			while (it.hasNext()) {
-				et = it.next();
-				adj[i].add(new EdgeTarget(et.v, et.weight));
-			}
-		}
+		vertexWeight = Arrays.copyOf(g.vertexWeight, g.vertexWeight.length);
+		copyAdjacencies(g, false);
 	}
 	
 // methods inherited from Graph interface
@@ -447,27 +375,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	 */
 	@Override
 	public boolean insert(int _f, int _t) {
-		char _offset = offset();
-		int _v =  vertices();
-		boolean _directed = directed();
-		int _from = _f - _offset, _to = _t - _offset;
-		if (_from < 0 || _to < 0) {
-			throw new IllegalArgumentException("Vertex cannot have negative index");
-		}
-		if (_from >= _v || _to >= _v) {
-			throw new IllegalArgumentException("Invalid edge for current graph");
-		}
-		if (_from == _to && !_directed) {
-			throw new IllegalArgumentException("Self-edge not allowed in an undirected graph");
-		}
-		EdgeTarget _et = new EdgeTarget(_to);
-		if (adj[_from].contains(_et)) return false;	// edge already present
-		++e;
-		adj[_from].add(_et);
-		if (!_directed) {
-			adj[_to].add(new EdgeTarget(_from));
-		}
-		return true;
+		return insert(_f, _t, DEFAULT_WEIGHT);
 	}
 
 	public boolean insert(Edge _e) {
@@ -488,10 +396,10 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		if (_from == _to && !_directed) {
 			throw new IllegalArgumentException("Self-edge not allowed in an undirected graph");
 		}
-		boolean found = adj[_from].remove(new EdgeTarget(_to));
+		boolean found = delete(_from, _to);
 		if (found) {
 			--e;
-			if (!_directed)	adj[_to].remove(new EdgeTarget(_from));
+			if (!_directed)	delete(_to, _from);
 		}
 		return found;
 	}
@@ -507,22 +415,19 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		int _v =  vertices();
 		Edge [] result = new Edge[e];
 		if (e == 0) return result;
-		int counter = 0;
-		ListIterator<EdgeTarget> it;
+		int counter = 0, j;
 		if (directed()) {
 			for (int i = 0; i < _v; ++i) {
-				it = adj[i].listIterator();
-				while (it.hasNext()) {
-					result[counter++] = new Edge(i + _offset, it.next().v + _offset, charRep());
+				for (j = 0; j < degree[i]; ++j) {
+					result[counter++] = new Edge(i + _offset, target[i][j] + _offset, charRep());
 				}
 			}
 		}
 		else {
 			int u, max = _v - 1;
 			for (int i = 0; i < max; ++i) {
-				it = adj[i].listIterator();
-				while (it.hasNext()) {
-					u = it.next().v;
+				for (j = 0; j < degree[i]; ++j) {
+					u = target[i][j];
 					if (i < u) result[counter++] = new Edge(i + _offset, u + _offset, charRep());
 				}
 			}
@@ -537,11 +442,9 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		if (_from < 0 || _v <= _from) {
 			throw new IllegalArgumentException("Invalid vertex");
 		}
-		Edge [] result = new Edge[adj[_from].size()];
-		int counter = 0;
-		ListIterator<EdgeTarget> it = adj[_from].listIterator();
-		while (it.hasNext()) {
-			result[counter++] = new Edge(_from + _offset, it.next().v + _offset, charRep());
+		Edge [] result = new Edge[degree[_from]];
+		for (int i = 0; i < degree[_from]; ++i) {
+			result[i] = new Edge(_from + _offset, target[_from][i] + _offset, charRep());
 		}
 		return result;
 	}
@@ -557,27 +460,21 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		WeightedEdge[] result = new WeightedEdge[e];
 		if (e == 0) return result;
 		
-		int counter = 0, i;
-		ListIterator<EdgeTarget> it;
-		EdgeTarget et;
+		int counter = 0, i, j;
 		
 		if (DIRECTED) {
 			if (OFFSET == 0) {
 				for (i = 0; i < VERTICES; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						et = it.next();
-						result[counter++] = new WeightedEdge(i, et.v, et.weight);
+					for (j = 0; j < degree[i]; ++j) {
+						result[counter++] = new WeightedEdge(i, target[i][j], weight[i][j]);
 					}
 				}
 			}
 			else {
 				for (i = 0; i < VERTICES; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						et = it.next();
-						result[counter++] = new WeightedEdge(i + OFFSET, et.v + OFFSET, 
-								CHAR_REP, et.weight);
+					for (j = 0; j < degree[i]; ++j) {
+						result[counter++] = new WeightedEdge(i + OFFSET, target[i][j] + OFFSET,
+								CHAR_REP, weight[i][j]);
 					}
 				}
 			}
@@ -586,23 +483,19 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		else {	// graph is undirected
 			if (OFFSET == 0) {
 				for (i = 0; i < MAX; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						et = it.next();
-						if (i < et.v) {
-							result[counter++] = new WeightedEdge(i, et.v, et.weight);
+					for (j = 0; j < degree[i]; ++j) {
+						if (i < target[i][j]) {
+							result[counter++] = new WeightedEdge(i, target[i][j], weight[i][j]);
 						}						
 					}
 				}
 			}
 			else {
 				for (i = 0; i < MAX; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						et = it.next();
-						if (i < et.v) {
-							result[counter++] = new WeightedEdge(i + OFFSET, et.v + OFFSET, 
-								CHAR_REP, et.weight);
+					for (j = 0; j < degree[i]; ++j) {
+						if (i < target[i][j]) {
+							result[counter++] = new WeightedEdge(i + OFFSET, target[i][j] + OFFSET,
+								CHAR_REP, weight[i][j]);
 						}
 					}
 				}
@@ -616,30 +509,24 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		final char OFFSET = offset();
 		final boolean CHAR_REP = charRep();
 		int vertex = from - OFFSET;
-		final int SIZE = adj[vertex].size();
 		
 		if (vertex < 0 || vertices() <= vertex) {
 			throw new IllegalArgumentException("Invalid vertex");
 		}
 		
+		final int SIZE = degree[vertex];
 		WeightedEdge[] result = new WeightedEdge[SIZE];
-		if (SIZE == 0) return result;
-		
-		int counter = 0;
-		ListIterator<EdgeTarget> it = adj[vertex].listIterator();
-		EdgeTarget et;
+		int i;
 		
 		if (OFFSET == 0) {
-			while (it.hasNext()) {
-				et = it.next();
-				result[counter++] = new WeightedEdge(vertex, et.v, et.weight);
+			for (i = 0; i < SIZE; ++i) {
+				result[i] = new WeightedEdge(vertex, target[vertex][i], weight[vertex][i]);
 			}
 		}
 		else {
-			while (it.hasNext()) {
-				et = it.next();
-				result[counter++] = new WeightedEdge(vertex + OFFSET, 
-						et.v + OFFSET, CHAR_REP, et.weight);
+			for (i = 0; i < SIZE; ++i) {
+				result[i] = new WeightedEdge(vertex + OFFSET,
+						target[vertex][i] + OFFSET, CHAR_REP, weight[vertex][i]);
 			}
 		}		
 		return result;
@@ -657,15 +544,25 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		if (_from < 0 || _v <= _from) {
 			throw new IllegalArgumentException("Invalid vertex");
 		}
-		int [] result = new int[adj[_from].size()];
-		int counter = 0;
-		ListIterator<EdgeTarget> it = adj[_from].listIterator();
-		while (it.hasNext()) {
-			result[counter++] = it.next().v + _offset;
+		int [] result = new int[degree[_from]];
+		for (int i = 0; i < degree[_from]; ++i) {
+			result[i] = target[_from][i] + _offset;
 		}
 		return result;
 	}
 	
+	/**
+	 * @param _f
+	 * @return The number of edges leaving _f
+	 */
+	public int outDegree(int _f) {
+		int _from = _f - offset();
+		if (_from < 0 || vertices() <= _from) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return degree[_from];
+	}
+
 	public boolean hasEdge(int _f, int _t) {
 		char _offset = offset();
 		int _v =  vertices();
@@ -673,7 +570,7 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		if (_from < 0 || _to < 0 || _from >= _v || _to >= _v) {
 			throw new IllegalArgumentException("Invalid edge for current graph");
 		}
-		return adj[_from].contains(new EdgeTarget(_to));
+		return indexOf(_from, _to) >= 0;
 	}
 	
 	public boolean hasEdge(Edge _e) {
@@ -693,15 +590,12 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 			throw new UnsupportedOperationException("Transpose operation trivial on undirected graphs");
 		}
 		WeightedLinkedListGraph result = new WeightedLinkedListGraph(_v, _directed, _offset, _d);
-		ListIterator<EdgeTarget> it;
+		result.e = e;
 		int j;
-		EdgeTarget _et;
 		for (int i = 0; i < _v; ++i) {
 			// transfer transposed edges
-			it = adj[i].listIterator();
-			while (it.hasNext()) {
-				_et = it.next();
-				result.adj[_et.v].add(new EdgeTarget(i, _et.weight));
+			for (j = 0; j < degree[i]; ++j) {
+				result.append(target[i][j], i, weight[i][j]);
 			}
 			// copy vertex data
 			result.vertexWeight[i] = vertexWeight[i];
@@ -728,14 +622,13 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		if (_to < 0 || _v <= _to) {
 			throw new IllegalArgumentException("Invalid vertex");
 		}
-		boolean found = adj[_from].remove(new EdgeTarget(_to));
-		if (!found) {
+		int i = indexOf(_from, _to);
+		if (i < 0) {
 			throw new IllegalArgumentException("Invalid edge");
 		}
-		adj[_from].add(new EdgeTarget(_to, _w));
+		weight[_from][i] = _w;
 		if (!_directed) {
-			adj[_to].remove(new EdgeTarget(_from));
-			adj[_to].add(new EdgeTarget(_from, _w));
+			weight[_to][indexOf(_to, _from)] = _w;
 		}
 	}
 	public void setEdgeWeight(Edge _e, double _w) {
@@ -759,24 +652,16 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 			throw new IllegalArgumentException("Invalid property");
 		}
 		
-		ListIterator<EdgeTarget> it = adj[f].listIterator();
-		EdgeTarget et;
-		while (it.hasNext()) {
-			et = it.next();
-			if (et.v == t) {
+		int i = indexOf(f, t);
+		if (i < 0) {
+			throw new IllegalArgumentException("Invalid edge");
+		}
 				// Change the given property
-				et.properties[property] = value;
+		this.property[f][i * edgeProperties + property] = value;
 				// If the graph is undirected, change the other adjacency list
 				if (!DIRECTED) {
-					it = adj[t].listIterator();
-					et = it.next();
-					if (et.v == f) et.properties[property] = value;
-				}
-				return;
-			}
+			this.property[t][indexOf(t, f) * edgeProperties + property] = value;
 		}
-		// If we reach this point, the edge was not found
-		throw new IllegalArgumentException("Invalid edge");
 	}
 	@Override
 	public void setEdgeProperty(Edge e, int property, int value) {
@@ -795,13 +680,11 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		if (_to < 0 || _v <= _to) {
 			throw new IllegalArgumentException("Invalid vertex");
 		}
-		ListIterator<EdgeTarget> it = adj[_from].listIterator();
-		EdgeTarget _et;
-		while (it.hasNext()) {
-			_et = it.next();
-			if (_et.v == _to) return _et.weight;
-		}
+		int i = indexOf(_from, _to);
+		if (i < 0) {
 		throw new IllegalArgumentException("Invalid edge");
+		}
+		return weight[_from][i];
 	}
 	@Override
 	public double getEdgeWeight(Edge _e) {
@@ -824,13 +707,11 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 			throw new IllegalArgumentException("Invalid property");
 		}
 		
-		ListIterator<EdgeTarget> it = adj[f].listIterator();
-		EdgeTarget et;
-		while (it.hasNext()) {
-			et = it.next();
-			if (et.v == t) return et.properties[property];
-		}
+		int i = indexOf(f, t);
+		if (i < 0) {
 		throw new IllegalArgumentException("Invalid edge");
+		}
+		return this.property[f][i * edgeProperties + property];
 	}
 	@Override
 	public int getEdgeProperty(Edge e, int property) {
@@ -878,12 +759,11 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		if (_from == _to && !_directed) {
 			throw new IllegalArgumentException("Self-edge not allowed in an undirected graph");
 		}
-		EdgeTarget _et = new EdgeTarget(_to, _w);
-		if (adj[_from].contains(_et)) return false;	// edge already present
+		if (indexOf(_from, _to) >= 0) return false;	// edge already present
 		++e;
-		adj[_from].add(_et);
+		append(_from, _to, _w);
 		if (!_directed) {
-			adj[_to].add(new EdgeTarget(_from, _w));
+			append(_to, _from, _w);
 		}
 		return true;
 	}
@@ -892,24 +772,52 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	}
 	/**
 	 * Completely unchecked insertion for maximum speed.
+	 * The properties in prop are copied.
 	 * @param from
-	 * @param et
+	 * @param to
+	 * @param wt
+	 * @param prop
 	 */
 	protected void insert(int from, int to, double wt, int[] prop) {
-		adj[from].add(new EdgeTarget(to, wt, prop));
+		append(from, to, wt, prop);
 		if (!directed()) {
-			
-			// Make a copy of prop
-			final int SIZE = prop.length;
-			int[] tmp = new int[SIZE];
-			for (int i = 0; i < SIZE; ++i) {
-				tmp[i] = prop[i];
-			}
-			adj[to].add(new EdgeTarget(from, wt, tmp));
+			append(to, from, wt, prop);
 		}
 		++e;
 	}
 
+// methods inherited from AbstractGraph
+	/**
+	 * The view reads the adjacency lists of this graph directly, so
+	 * the graph must not be modified while the view is in use.
+	 * An arc is an index in the adjacency list of its tail.
+	 */
+	WeightedAdjacency adjacency() {
+		return new ListAdjacency();
+	}
+
+	private class ListAdjacency implements WeightedAdjacency {
+		private WeightedAdjacency reverse;
+
+		public int vertices() { return WeightedLinkedListGraph.this.vertices(); }
+		public boolean directed() { return WeightedLinkedListGraph.this.directed(); }
+		public int outDegree(int u) { return degree[u]; }
+		public int firstArc(int u) {
+			return degree[u] > 0 ? 0 : NO_ARC;
+		}
+		public int nextArc(int u, int arc) {
+			return arc + 1 < degree[u] ? arc + 1 : NO_ARC;
+		}
+		public int target(int u, int arc) { return target[u][arc]; }
+		public double weight(int u, int arc) { return weight[u][arc]; }
+		public WeightedAdjacency reverse() {
+			if (reverse == null) {
+				reverse = directed() ? WeightedCsrAdjacency.reverseOf(this) : this;
+			}
+			return reverse;
+		}
+	}
+
 // methods inherited from Object
 	// returns a deep copy of calling object
 	public WeightedLinkedListGraph clone() {
@@ -922,15 +830,13 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		boolean _charRep = charRep();
 		String result = "";
 		int i, j, lim = _v - 1;
-		ListIterator<EdgeTarget> it;
 		if (_charRep) {
 			for (i = 0; i < _v; ++i) {
 				result += (char)(i + _offset) + ": ";
-				it = adj[i].listIterator();
-				if (it.hasNext()) {
-					result += (char)(it.next().v + _offset);
-					while (it.hasNext()) {
-						result += " -> " + (char)(it.next().v + _offset);
+				if (degree[i] > 0) {
+					result += (char)(target[i][0] + _offset);
+					for (j = 1; j < degree[i]; ++j) {
+						result += " -> " + (char)(target[i][j] + _offset);
 					}					
 				}		
 				if (i < lim) result += "\n";
@@ -946,11 +852,10 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 					result += " ";
 				}
 				result += i + ": ";
-				it = adj[i].listIterator();
-				if (it.hasNext()) {
-					result += it.next().v;
-					while (it.hasNext()) {
-						result += " -> " + it.next().v;
+				if (degree[i] > 0) {
+					result += target[i][0];
+					for (j = 1; j < degree[i]; ++j) {
+						result += " -> " + target[i][j];
 					}					
 				}			
 				if (i < lim) result += "\n";
@@ -973,20 +878,15 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		boolean _charRep = charRep();
 		String result = "";
 		int i, j, lim = _v - 1;
-		ListIterator<EdgeTarget> it;
-		EdgeTarget _et;
 		if (_charRep) {
 			for (i = 0; i < _v; ++i) {
 				result += (char)(i + _offset) + ": ";
-				it = adj[i].listIterator();
-				if (it.hasNext()) {
-					_et = it.next();
-					result += (char)(_et.v + _offset);
-					result += String.format("(%." + _precision + "f)", _et.weight);
-					while (it.hasNext()) {
-						_et = it.next();
-						result += " -> " + (char)(_et.v + _offset);
-						result += String.format("(%." + _precision + "f)", _et.weight);
+				if (degree[i] > 0) {
+					result += (char)(target[i][0] + _offset);
+					result += String.format("(%." + _precision + "f)", weight[i][0]);
+					for (j = 1; j < degree[i]; ++j) {
+						result += " -> " + (char)(target[i][j] + _offset);
+						result += String.format("(%." + _precision + "f)", weight[i][j]);
 					}					
 				}		
 				if (i < lim) result += "\n";
@@ -1002,11 +902,10 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 					result += " ";
 				}
 				result += i + ": ";
-				it = adj[i].listIterator();
-				if (it.hasNext()) {
-					result += it.next().v;
-					while (it.hasNext()) {
-						result += " -> " + it.next().v;
+				if (degree[i] > 0) {
+					result += target[i][0];
+					for (j = 1; j < degree[i]; ++j) {
+						result += " -> " + target[i][j];
 					}					
 				}			
 				if (i < lim) result += "\n";
@@ -1031,171 +930,378 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		final int VERTICES = vertices();
 		final int OFFSET = offset();
 		final boolean CHAR_REP = charRep();
-		final int MAX = VERTICES - 1;
+		final int MAX = DIRECTED ? VERTICES : VERTICES - 1;
 		LinkedList<Edge> result = new LinkedList<Edge>();
-		ListIterator<EdgeTarget> it;
-		EdgeTarget et;
-		int i;
+		int i, j;
 		
 		// Get edges
-		if (DIRECTED) {
-			if (CHAR_REP) {
-				for (i = 0; i < VERTICES; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						et = it.next();
-						if (et.properties[property] == value) {
-							result.add(new Edge(i + OFFSET, et.v + OFFSET, CHAR_REP));
-						}
-					}
-				}
-			}
-			else {
-				for (i = 0; i < VERTICES; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						et = it.next();
-						if (et.properties[property] == value) {
-							result.add(new Edge(i, et.v));
-						}
-					}
-				}
-			}			
-		}
-		else {
-			if (CHAR_REP) {
 				for (i = 0; i < MAX; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						et = it.next();
-						if (i < et.v && et.properties[property] == value) {
-							result.add(new Edge(i + OFFSET, et.v + OFFSET, CHAR_REP));
-						}
-					}
+			for (j = 0; j < degree[i]; ++j) {
+				if ((DIRECTED || i < target[i][j])
+						&& this.property[i][j * edgeProperties + property] == value) {
+					if (CHAR_REP) result.add(new Edge(i + OFFSET, target[i][j] + OFFSET, CHAR_REP));
+					else result.add(new Edge(i, target[i][j]));
 				}
 			}
-			else {
-				for (i = 0; i < MAX; ++i) {
-					it = adj[i].listIterator();
-					while (it.hasNext()) {
-						et = it.next();
-						if (i < et.v && et.properties[property] == value) {
-							result.add(new Edge(i, et.v));
-						}
-					}
-				}
-			}			
 		}
 		return result;
 	}
 	
 	/**
 	 * CLRS, p. 604
-	 * The most complete version of DFS in the sense of providing 
-	 * the most information.
-	 * Note here that all edge properties in the calling object are lost!!!
-	 * They are replaced by the single edge property EDGE_TYPE, which
-	 * classifies each edge as a tree, back, forward or cross edge.
-	 * If the graph contains important edge data, this method should
-	 * be run only on a copy of the original graph.
+	 * DFS with trees started from the vertices in the order of the data
+	 * field orderField, and the adjacencies of each vertex explored in
+	 * the same order, as in LinkedListGraph.depthFirstSearch(orderField,
+	 * orderMax, asc). The calling graph is only read: its adjacency lists
+	 * keep their order and its edge properties are left as they are.
+	 * The type of each edge (tree, back, forward or cross) is given by
+	 * classifyEdges(orderField, orderMax, asc).
 	 * @return
 	 */
 	public LinkedListGraph depthFirstSearch(int orderField, int orderMax, boolean asc) {
-		final int VERTICES = vertices();
-		final char OFFSET = offset();
-		final boolean DIRECTED = false;
-		final int DATA_FIELDS = 5;
-		edgeProperties = 1;
-		int i;
-		
 		int[][] vArr = sortedVertices(orderField, orderMax, asc);
-		
-		// Re-order the adjacency lists of the calling graph
-		for (i = 0; i < VERTICES; ++i) {
-			if (!adj[i].isEmpty()) {
-				sortAdjacencyList(adj[i], vArr[VERTEX_LOOKUP]);
-			}
+		return DepthFirstSearch.forest(this, adjacency(), vArr[VERTICES_SORTED],
+				vArr[VERTEX_LOOKUP], true);
+	}
+	
+	/**
+	 * CLRS, p. 604
+	 * Classifies every edge as a tree, back, forward or cross edge by
+	 * the same search as depthFirstSearch(orderField, orderMax, asc).
+	 * The graph is left unchanged, and the types are written to one
+	 * byte per edge, so the graph may have edge data of its own, and no
+	 * result graph is built.
+	 * @param orderField
+	 * @param orderMax
+	 * @param asc
+	 * @return result[k] is the type of edge k, one of the edge types of
+	 * Graph. Edges are numbered in the order of the adjacency lists, those
+	 * of vertex u coming after the outDegree() edges of each vertex before u.
+	 * An undirected edge is classified once from each of its vertices and
+	 * gets the same type both ways, TREE_EDGE or BACK_EDGE, which are the
+	 * only types in an undirected graph.
+	 * Unlike the EDGE_TYPE once set by depthFirstSearch(), a directed edge
+	 * to a finished vertex is FORWARD_EDGE only if that vertex was
+	 * discovered after the tail, and CROSS_EDGE otherwise, even within
+	 * one tree.
+	 */
+	public byte[] classifyEdges(int orderField, int orderMax, boolean asc) {
+		int[][] vArr = sortedVertices(orderField, orderMax, asc);
+		return classifyEdges(vArr[VERTICES_SORTED], vArr[VERTEX_LOOKUP]);
+	}
+
+	/**
+	 * Classifies every edge as in classifyEdges(orderField, orderMax, asc),
+	 * with trees started from the vertices in order and the edges of each
+	 * vertex explored in the order of its adjacency list
+	 * @return
+	 */
+	public byte[] classifyEdges() {
+		return classifyEdges(null, null);
+	}
+
+	private byte[] classifyEdges(int[] roots, int[] rank) {
+		final int VERTICES = vertices();
+		WeightedAdjacency g = adjacency();
+		byte[] result = new byte[DepthFirstSearch.arcs(g)];
+		DepthFirstSearch.search(g, roots, rank, new int[VERTICES], new int[VERTICES],
+				new int[VERTICES], new int[VERTICES], result);
+		return result;
+	}
+
+	/**
+	 * CLRS, p. 658
+	 * Dijkstra's algorithm from _s, using an IndexedMinHeap.
+	 * Throws an IllegalArgumentException if an edge of negative
+	 * weight is reached.
+	 * @param _s
+	 * @return
+	 */
+	public ShortestPaths shortestPathsDijkstra(int _s) {
+		return dijkstra(_s, Dijkstra.ALL);
+	}
+
+	/**
+	 * Dijkstra's algorithm from _s, stopping once the distance to _t
+	 * is known. Only the distances of vertices no farther from _s than _t
+	 * are final, and pathTo(_t) gives a shortest path.
+	 * @param _s
+	 * @param _t
+	 * @return
+	 */
+	public ShortestPaths shortestPathsDijkstra(int _s, int _t) {
+		int t = _t - offset();
+		if (t < 0 || vertices() <= t) {
+			throw new IllegalArgumentException("Invalid vertex");
 		}
-		
-		LinkedListGraph result = new LinkedListGraph(VERTICES, DIRECTED, OFFSET, DATA_FIELDS);
-		result.setDataFieldLabel(COLOR, 'c');		
-		result.setDataFieldLabel(PARENT, 'p');
-		result.setDataFieldLabel(DISCOVERY_TIME, 'd');
-		result.setDataFieldLabel(FINISH_TIME, 'f');
-		result.setDataFieldLabel(TREE_NUMBER, 't');
-		
-		for (i = 0; i < VERTICES; ++i) {
-			// set color to white
-			result.setData(i, COLOR, WHITE);
-			// set parent to NIL_VERTEX
-			result.setData(i, PARENT, NIL_VERTEX);	
+		return dijkstra(_s, t);
+	}
+
+	private ShortestPaths dijkstra(int _s, int t) {
+		final int VERTICES = vertices();
+		int s = _s - offset();
+		if (s < 0 || VERTICES <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
 		}
-		
-		time = 0;
-		int treeNum = 0;
-		for (i = 0; i < VERTICES; ++i) {
-			if (result.getData(vArr[VERTICES_SORTED][i], COLOR) == WHITE) {
-				dfsVisit(result, vArr[VERTICES_SORTED][i], treeNum++);
-			}
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		Dijkstra.search(adjacency(), s, t, distance, parent, new IndexedMinHeap(VERTICES));
+		return new ShortestPaths(this, s, distance, parent);
+	}
+
+	/**
+	 * CLRS, p. 651
+	 * Bellman-Ford algorithm from _s, stopping as soon as a pass over
+	 * the edges changes no distance. Negative edge weights are allowed.
+	 * If a cycle of negative weight can be reached from _s, the result
+	 * reports it in negativeCycle() and its distances are not final.
+	 * @param _s
+	 * @return
+	 */
+	public ShortestPaths shortestPathsBellmanFord(int _s) {
+		return bellmanFord(_s, false);
+	}
+
+	/**
+	 * Bellman-Ford from _s with a FIFO queue of the vertices whose
+	 * distance has changed (SPFA), so that only their edges are relaxed.
+	 * Results are as for shortestPathsBellmanFord(_s).
+	 * @param _s
+	 * @return
+	 */
+	public ShortestPaths shortestPathsSpfa(int _s) {
+		return bellmanFord(_s, true);
+	}
+
+	/**
+	 * Parallel Bellman-Ford from _s in the common ForkJoinPool,
+	 * with the default threshold
+	 * @param _s
+	 * @return
+	 */
+	public ShortestPaths shortestPathsBellmanFordParallel(int _s) {
+		return shortestPathsBellmanFordParallel(_s, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Parallel Bellman-Ford from _s. In each pass, every vertex takes the
+	 * lowest distance through its incoming edges given the distances of
+	 * the previous pass, with the vertices split among tasks in pool,
+	 * each taking at most threshold vertices. Results are as for
+	 * shortestPathsBellmanFord(_s), though the parents may differ where
+	 * there are several shortest paths. The graph must not be modified
+	 * during the search.
+	 * @param _s
+	 * @param pool
+	 * @param threshold
+	 * @return
+	 */
+	public ShortestPaths shortestPathsBellmanFordParallel(int _s, ForkJoinPool pool, int threshold) {
+		final int VERTICES = vertices();
+		int s = _s - offset();
+		if (s < 0 || VERTICES <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
 		}
-		return result;
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
+		}
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		int[] cycle = BellmanFord.parallel(adjacency(), s, distance, parent, pool, threshold);
+		return new ShortestPaths(this, s, distance, parent, cycle);
 	}
-	
+
 	/**
-	 * CLRS, p. 604
-	 * This version also classifies edges in the original graph
-	 * as tree, back, forward or cross edges
-	 * @param res The result graph from depthFirstSearch()
-	 * @param v The vertex being explored
-	 * @param treeNum
+	 * A* search from _s to _t, which settles vertices in ascending order
+	 * of distance plus h.estimate(v, _t). Only the distance of _t and
+	 * pathTo(_t) are final. The estimate must never exceed the weight of
+	 * a shortest path, for example one given by landmarks().
+	 * Throws an IllegalArgumentException if an edge of negative
+	 * weight is reached.
+	 * @param _s
+	 * @param _t
+	 * @param h
+	 * @return
 	 */
-	private void dfsVisit(LinkedListGraph res, int v, int treeNum) {
-		res.setData(v, DISCOVERY_TIME, ++time);
-		res.setData(v, COLOR, GRAY);
-		res.setData(v, TREE_NUMBER, treeNum);
-		
-		ListIterator<EdgeTarget> it = adj[v].listIterator();
-		EdgeTarget adjacency;
-		while (it.hasNext()) {
-			adjacency = it.next();
-			if (res.getData(adjacency.v, COLOR) == WHITE) {
-				// Show edge as tree edge (in calling graph)
-				adjacency.properties = new int[edgeProperties];
-				adjacency.properties[EDGE_TYPE] = TREE_EDGE;
-				
-				// Insert edge into result graph
-				res.uncheckedInsert(v, adjacency.v);
-				// Set parent of adjacency to vertex v
-				res.setData(adjacency.v, PARENT, v);
-				dfsVisit(res, adjacency.v, treeNum);
-			}
-			else if (res.getData(adjacency.v, COLOR) == GRAY) {
-				if (directed() || res.getData(adjacency.v, PARENT) != v) {
-					adjacency.properties = new int[edgeProperties];
-					adjacency.properties[EDGE_TYPE] = BACK_EDGE;
-				}
-				else {
-					adjacency.properties = new int[edgeProperties];
-					adjacency.properties[EDGE_TYPE] = TREE_EDGE;
-				}
-			}
-			else {	// vertex color is black
-				if (res.getData(adjacency.v, TREE_NUMBER) == treeNum) {
-					adjacency.properties = new int[edgeProperties];
-					adjacency.properties[EDGE_TYPE] = FORWARD_EDGE;
-				}
-				else {
-					adjacency.properties = new int[edgeProperties];
-					adjacency.properties[EDGE_TYPE] = CROSS_EDGE;
-				}
+	public ShortestPaths shortestPathAStar(int _s, int _t, Heuristic h) {
+		final int VERTICES = vertices();
+		int s = _s - offset(), t = _t - offset();
+		if (s < 0 || VERTICES <= s || t < 0 || VERTICES <= t) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		AStar.search(adjacency(), offset(), s, t, h, distance, parent, new IndexedMinHeap(VERTICES));
+		return new ShortestPaths(this, s, distance, parent);
+	}
+
+	/**
+	 * A shortest path from _s to _t by Dijkstra's algorithm run forward
+	 * from _s and backward from _t, stopping once the least distances
+	 * left in the two queues add up to no less than the lightest path
+	 * found. Usually settles fewer vertices than a search from _s
+	 * alone. On a directed graph the backward search runs over the
+	 * reverse of the graph, which is built for each call.
+	 * Throws an IllegalArgumentException if an edge of negative
+	 * weight is reached.
+	 * @param _s
+	 * @param _t
+	 * @return The vertices of the path, from _s to _t, or an empty array
+	 * if _t cannot be reached from _s
+	 */
+	public int[] shortestPathDijkstraBidirectional(int _s, int _t) {
+		final int VERTICES = vertices();
+		int s = _s - offset(), t = _t - offset();
+		if (s < 0 || VERTICES <= s || t < 0 || VERTICES <= t) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return BidirectionalSearch.dijkstra(adjacency(), offset(), s, t);
+	}
+
+	/**
+	 * Chooses k landmarks by farthest-point selection and stores the
+	 * distances to and from them, in 4k bytes per vertex (8k if the graph
+	 * is directed), as a heuristic for shortestPathAStar().
+	 * Throws an IllegalArgumentException if an edge has negative weight.
+	 * @param k At least 1 and at most the number of vertices
+	 * @return
+	 */
+	public Landmarks landmarks(int k) {
+		if (k < 1 || vertices() < k) {
+			throw new IllegalArgumentException("Invalid number of landmarks");
+		}
+		return new Landmarks(this, adjacency(), k);
+	}
+
+	private ShortestPaths bellmanFord(int _s, boolean queue) {
+		final int VERTICES = vertices();
+		int s = _s - offset();
+		if (s < 0 || VERTICES <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		int[] cycle = queue ? BellmanFord.spfa(adjacency(), s, distance, parent)
+				: BellmanFord.search(adjacency(), s, distance, parent);
+		return new ShortestPaths(this, s, distance, parent, cycle);
+	}
+
+	/**
+	 * Parallel delta-stepping from _s in the common ForkJoinPool,
+	 * with the default threshold
+	 * @param _s
+	 * @param delta Bucket width
+	 * @return
+	 */
+	public ShortestPaths shortestPathsDeltaStepping(int _s, double delta) {
+		return shortestPathsDeltaStepping(_s, delta, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Parallel delta-stepping from _s. Tentative distances are kept in
+	 * buckets of width delta, and the edges out of the lowest bucket
+	 * are relaxed by tasks in pool, each taking at most threshold vertices.
+	 * A delta about the mean edge weight is a reasonable start: smaller
+	 * values approach the work of Dijkstra's algorithm with less to do
+	 * in parallel, larger ones relax edges more often.
+	 * Distances are those of shortestPathsDijkstra(_s), but where there are
+	 * several shortest paths the parents may differ. Throws an
+	 * IllegalArgumentException if the graph has an edge of negative weight.
+	 * The graph must not be modified during the search.
+	 * @param _s
+	 * @param delta Bucket width
+	 * @param pool
+	 * @param threshold
+	 * @return
+	 */
+	public ShortestPaths shortestPathsDeltaStepping(int _s, double delta, ForkJoinPool pool, int threshold) {
+		final int VERTICES = vertices();
+		int s = _s - offset();
+		if (s < 0 || VERTICES <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		if (!(delta > 0.0)) {
+			throw new IllegalArgumentException("Bucket width must be positive");
+		}
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
+		}
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		DeltaStepping.search(adjacency(), s, delta, distance, parent, pool, threshold);
+		return new ShortestPaths(this, s, distance, parent);
+	}
+
+	/**
+	 * Johnson's algorithm in the common ForkJoinPool, with the
+	 * default threshold, keeping all distances in a matrix of 8 bytes
+	 * per pair of vertices. Next hops are not computed.
+	 * @return
+	 */
+	public AllPairsShortestPaths shortestPathsJohnson() {
+		final int VERTICES = vertices();
+		if ((long) VERTICES * VERTICES > Integer.MAX_VALUE - 8) {
+			throw new UnsupportedOperationException("Too many vertices for a distance matrix");
+		}
+		final double[] distance = new double[VERTICES * VERTICES];
+		shortestPathsJohnson(new ShortestPathsSink() {
+			public void accept(ShortestPaths paths) {
+				System.arraycopy(paths.distanceArray(), 0, distance,
+						(paths.source() - offset()) * VERTICES, VERTICES);
 			}
+		});
+		return new AllPairsShortestPaths(this, distance, null);
+	}
+
+	/**
+	 * Johnson's algorithm in the common ForkJoinPool, with the default threshold
+	 * @param sink Receives the shortest paths from each vertex
+	 */
+	public void shortestPathsJohnson(ShortestPathsSink sink) {
+		shortestPathsJohnson(sink, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * CLRS, p. 700
+	 * Johnson's algorithm: shortest paths between all pairs of vertices
+	 * for graphs that may have negative edge weights, in time
+	 * O(VE lg V) rather than the O(V^3) of Floyd-Warshall.
+	 * Bellman-Ford gives potentials that make the weights non-negative,
+	 * then Dijkstra's algorithm is run from each vertex, with the sources
+	 * split among tasks in pool, each taking at most threshold sources
+	 * and reusing its arrays and heap for all of them.
+	 * The paths from each source are passed to sink as they are found,
+	 * so no more than one set of arrays per task is held at a time.
+	 * Throws an IllegalStateException if the graph has a cycle of
+	 * negative weight, which includes any negative edge of an undirected
+	 * graph. The graph must not be modified during the search.
+	 * @param sink Receives the shortest paths from each vertex
+	 * @param pool
+	 * @param threshold
+	 */
+	public void shortestPathsJohnson(ShortestPathsSink sink, ForkJoinPool pool, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
 		}
-		// Blacken vertex v
-		res.setData(v, COLOR, BLACK);
-		// Set finish time for v
-		res.setData(v, FINISH_TIME, ++time);
+		Johnson.search(this, adjacency(), sink, pool, threshold);
 	}
-	
+
+	/**
+	 * Builds a contraction hierarchy, an index answering shortest path
+	 * queries between pairs of vertices by searching a small part of the
+	 * graph. Vertices are removed one at a time, cheapest first, adding
+	 * shortcut edges to keep the distances between the others.
+	 * Preprocessing takes far longer than one Dijkstra search, so this is
+	 * for graphs that do not change and serve many queries; the
+	 * hierarchy can be saved with ContractionHierarchy.write().
+	 * It does not follow later changes to the graph.
+	 * Throws an IllegalArgumentException if an edge has negative weight.
+	 * @return
+	 */
+	public ContractionHierarchy contractionHierarchy() {
+		return Contraction.build(this, adjacency());
+	}
+
 	/**
 	 * CLRS, p. 631
 	 * @return
@@ -1216,30 +1322,14 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		WeightedEdge[] edges = getWeightedEdges();
 		Arrays.sort(edges);
 		
-		if (OFFSET == 0) {
-			for (i = 0; i < NUM_EDGES && result.e < VERTICES; ++i) {
-				if (s.findSet(edges[i].from()) != s.findSet(edges[i].to())) {
-					from = edges[i].from();
-					to = edges[i].to();
-					// Insert edge into spanning tree
-					result.adj[from].add(new EdgeTarget(to,	edges[i].weight()));
-					result.adj[to].add(new EdgeTarget(from,	edges[i].weight()));
-					++result.e;
-					s.union(from, to);
-				}
-			}
-		}
-		else {
-			for (i = 0; i < NUM_EDGES && result.e < VERTICES; ++i) {
-				if (s.findSet(edges[i].from() - OFFSET) != s.findSet(edges[i].to() - OFFSET)) {
+		for (i = 0; i < NUM_EDGES && s.sets() > 1; ++i) {
 					from = edges[i].from() - OFFSET;
 					to = edges[i].to() - OFFSET;
+			if (s.union(from, to)) {
 					// Insert edge into spanning tree
-					result.adj[from].add(new EdgeTarget(to,	edges[i].weight()));
-					result.adj[to].add(new EdgeTarget(from,	edges[i].weight()));
+				result.append(from, to, edges[i].weight());
+				result.append(to, from, edges[i].weight());
 					++result.e;
-					s.union(from, to);
-				}
 			}
 		}
 		
@@ -1248,6 +1338,11 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	
 	/**
 	 * CLRS, p. 634
+	 * Vertices enter the queue only when first reached, and the
+	 * queue is an IndexedMinHeap, so the running time is O(E lg V).
+	 * If the graph is not connected, the result spans only the
+	 * component containing start, and the other vertices are
+	 * left with parent NIL_VERTEX.
 	 * @return
 	 */
 	public WeightedLinkedListGraph minSpanningTreePrim(int start) {
@@ -1262,53 +1357,43 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 		
 		// Prim's algorithm also provides a parent in the resulting tree
 		final int DATA_FIELDS = 2;
-		int i;
-		ListIterator<EdgeTarget> it;
-		EdgeTarget et;
+		int i, j, v, p;
 		
 		// Empty graph corresponds to A in CLRS
 		WeightedLinkedListGraph result = new WeightedLinkedListGraph(VERTICES, DIRECTED,
 				OFFSET, DATA_FIELDS);
-		PriorityQueue<WeightedVertex> q = new PriorityQueue<WeightedVertex>(VERTICES,
-				new WeightedVertex.Heavier());
+		IndexedMinHeap q = new IndexedMinHeap(VERTICES);
 		// For fast retrieval of weight
 		double[] weights = new double[VERTICES];
-		boolean[] inQueue = new boolean[VERTICES];
+		boolean[] inTree = new boolean[VERTICES];
 		
 		for (i = 0; i < VERTICES; ++i) {
-			q.add(new WeightedVertex(i, Double.MAX_VALUE));
-			weights[i] = Double.MAX_VALUE;
-			inQueue[i] = true;
+			weights[i] = Double.POSITIVE_INFINITY;
 			result.setData(i, PARENT, NIL_VERTEX);
 		}
 		
-		q.remove(new WeightedVertex(r));
-		q.add(new WeightedVertex(r, 0.0));
+		weights[r] = 0.0;
+		q.insert(r, 0.0);
 		
-		while (q.size() != 0) {
-			i = q.poll().vertex();
-			inQueue[i] = false;
-			it = adj[i].listIterator();
-			while (it.hasNext()) {
-				et = it.next();
-				if (inQueue[et.v] && et.weight < weights[et.v]) {
-					result.setData(et.v, PARENT, i);
-					weights[et.v] = et.weight;
-					q.remove(new WeightedVertex(et.v));
-					q.add(new WeightedVertex(et.v, et.weight));
+		while (!q.isEmpty()) {
+			i = q.poll();
+			inTree[i] = true;
+			for (j = 0; j < degree[i]; ++j) {
+				v = target[i][j];
+				if (!inTree[v] && weight[i][j] < weights[v]) {
+					result.setData(v, PARENT, i);
+					weights[v] = weight[i][j];
+					q.offer(v, weights[v]);
 				}
 			}
 		}
 		
 		// Edges still need to be inserted
-		for (i = 0; i < r; ++i) {
-			result.adj[i].add(new EdgeTarget(result.getData(i, PARENT), weights[i]));
-			result.adj[result.getData(i, PARENT)].add(new EdgeTarget(i, weights[i]));
-			++result.e;
-		}
-		for (i = r + 1; i < VERTICES; ++i) {
-			result.adj[i].add(new EdgeTarget(result.getData(i, PARENT), weights[i]));
-			result.adj[result.getData(i, PARENT)].add(new EdgeTarget(i, weights[i]));
+		for (i = 0; i < VERTICES; ++i) {
+			p = result.getData(i, PARENT);
+			if (p == NIL_VERTEX) continue;
+			result.append(i, p, weights[i]);
+			result.append(p, i, weights[i]);
 			++result.e;
 		}
 		
@@ -1316,42 +1401,106 @@ public class WeightedLinkedListGraph extends AbstractGraph implements Graph, Wei
 	}
 	
 	/**
-	 * Uses insertion sort, which should in sum be faster than counting
-	 * sort if adjacencies is small relative to the number of vertices--i.e., if the
-	 * graph is sparse.
-	 * The adjacency list (adjacencies) is assumed to contain no duplicates
-	 * @param adj
-	 * @param orderArr
+	 * Parallel Boruvka's algorithm in the common ForkJoinPool, with the
+	 * default threshold
+	 * @return
 	 */
-	private static void sortAdjacencyList(LinkedList<EdgeTarget> adjacencies, int[] vertexLookup) {
-		final int SIZE = adjacencies.size();
-		ListIterator<EdgeTarget> it = adjacencies.listIterator();
-		int i, j;
-		
-		// Dump adjacencies into an array
-		EdgeTarget[] adjArr = new EdgeTarget[SIZE];
-		i = 0;
-		while (it.hasNext()) {
-			adjArr[i++] = it.next();
+	public WeightedLinkedListGraph minSpanningTreeBoruvka() {
+		return minSpanningTreeBoruvka(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * Parallel Boruvka's algorithm (CLRS, problem 23-2), which in each
+	 * of at most lg V rounds finds the lightest edge leaving every
+	 * component and merges the components along them. The work of each
+	 * round is split among tasks in pool, each taking at most threshold
+	 * edges or vertices. Edges are taken as undirected, as in
+	 * minSpanningTreeKruskal(), and ties between equal weights are
+	 * broken as there, so the tree has the same edges.
+	 * The graph must not be modified during the search.
+	 * @param pool
+	 * @param threshold
+	 * @return
+	 */
+	public WeightedLinkedListGraph minSpanningTreeBoruvka(ForkJoinPool pool, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
 		}
-		
-		// Sort the array according to the ordering of vertexLookup
-		EdgeTarget tmp;
-		for (i = 1; i < SIZE; ++i) {
-			tmp = adjArr[i];
-			j = i - 1;
-			while (j >= 0 && vertexLookup[adjArr[j].v] > vertexLookup[tmp.v]) {
-				adjArr[j + 1] = adjArr[j--];
-			}
-			adjArr[j + 1] = tmp;
+		final int VERTICES = vertices();
+		EdgeArrays edges = new EdgeArrays(adjacency());
+		int[] tree = Boruvka.search(VERTICES, edges, pool, threshold);
+		int i, from, to;
+		// Tree will be undirected
+		WeightedLinkedListGraph result = new WeightedLinkedListGraph(VERTICES, false, offset());
+		for (i = 0; i < tree.length; ++i) {
+			from = edges.from[tree[i]];
+			to = edges.to[tree[i]];
+			result.append(from, to, edges.weight[tree[i]]);
+			result.append(to, from, edges.weight[tree[i]]);
+			++result.e;
 		}
-		
-		// Reset the adjacency list
-		it = adjacencies.listIterator();
-		i = 0;
-		while (it.hasNext()) {
-			it.next();
-			it.set(adjArr[i++]);
+		return result;
+	}
+
+	/**
+	 * Parallel Boruvka's algorithm in the common ForkJoinPool, with the
+	 * default threshold, giving only the positions of the tree edges
+	 * @return
+	 */
+	public int[] minSpanningTreeEdgesBoruvka() {
+		return minSpanningTreeEdgesBoruvka(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * The edges chosen by minSpanningTreeBoruvka(pool, threshold),
+	 * without building a graph from them
+	 * @param pool
+	 * @param threshold
+	 * @return Positions in getWeightedEdges() of the edges of the tree,
+	 * in ascending order
+	 */
+	public int[] minSpanningTreeEdgesBoruvka(ForkJoinPool pool, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
 		}
+		return Boruvka.search(vertices(), new EdgeArrays(adjacency()), pool, threshold);
+	}
+
+	/**
+	 * Filter-Kruskal (Osipov, Sanders and Singler, 2009): Kruskal's
+	 * algorithm on edges partitioned around a pivot weight, where the
+	 * heavier part is solved only after the lighter one and without the
+	 * edges that the trees found so far already connect. Edges are kept
+	 * as primitive arrays rather than WeightedEdge objects, and sorted
+	 * with Arrays.parallelSort() on packed long keys. Edges are taken as
+	 * undirected, and the tree has the same edges as that of
+	 * minSpanningTreeKruskal().
+	 * @return
+	 */
+	public WeightedLinkedListGraph minSpanningTreeFilterKruskal() {
+		final int VERTICES = vertices();
+		EdgeArrays edges = new EdgeArrays(adjacency());
+		int[] tree = FilterKruskal.search(VERTICES, edges);
+		int i, from, to;
+		// Tree will be undirected
+		WeightedLinkedListGraph result = new WeightedLinkedListGraph(VERTICES, false, offset());
+		for (i = 0; i < tree.length; ++i) {
+			from = edges.from[tree[i]];
+			to = edges.to[tree[i]];
+			result.append(from, to, edges.weight[tree[i]]);
+			result.append(to, from, edges.weight[tree[i]]);
+			++result.e;
+		}
+		return result;
+	}
+
+	/**
+	 * The edges chosen by minSpanningTreeFilterKruskal(), without
+	 * building a graph from them
+	 * @return Positions in getWeightedEdges() of the edges of the tree,
+	 * in ascending order
+	 */
+	public int[] minSpanningTreeEdgesFilterKruskal() {
+		return FilterKruskal.search(vertices(), new EdgeArrays(adjacency()));
 	}
 }
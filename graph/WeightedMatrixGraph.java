@@ -3,6 +3,8 @@
  */
 package graph;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * @author Marshall Farrier
  * @date 11/24/10
@@ -88,10 +90,11 @@ public class WeightedMatrixGraph extends MatrixGraph implements Graph, WeightedG
 		int _v = _g.vertices();
 		edgeWeight = new double[_v][_v];
 		vertexWeight = new double[_v];
+		// edges have already been inserted by the MatrixGraph constructor
 		Edge [] edges = _g.getEdges();
 		int len = edges.length, i;
 		for (i = 0; i < len; ++i) {
-			insert(edges[i].from(), edges[i].to(), _g.getEdgeWeight(edges[i]));
+			setEdgeWeight(edges[i], _g.getEdgeWeight(edges[i]));
 		}
 		for (i = 0; i < _v; ++i) {
 			vertexWeight[i] = _g.uncheckedVertexWeight(i);
@@ -355,6 +358,274 @@ public class WeightedMatrixGraph extends MatrixGraph implements Graph, WeightedG
 	public boolean insert(Edge _e, double _w) {
 		return insert(_e.from(), _e.to(), _w);
 	}
+	
+// shortest paths
+	/**
+	 * CLRS, p. 658
+	 * Dijkstra's algorithm from _s, using an IndexedMinHeap.
+	 * Throws an IllegalArgumentException if an edge of negative
+	 * weight is reached.
+	 * @param _s
+	 * @return
+	 */
+	public ShortestPaths shortestPathsDijkstra(int _s) {
+		return dijkstra(_s, Dijkstra.ALL);
+	}
+	
+	/**
+	 * Dijkstra's algorithm from _s, stopping once the distance to _t
+	 * is known. Only the distances of vertices no farther from _s than _t
+	 * are final, and pathTo(_t) gives a shortest path.
+	 * @param _s
+	 * @param _t
+	 * @return
+	 */
+	public ShortestPaths shortestPathsDijkstra(int _s, int _t) {
+		int t = _t - offset();
+		if (t < 0 || vertices() <= t) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return dijkstra(_s, t);
+	}
+	
+	private ShortestPaths dijkstra(int _s, int t) {
+		final int VERTICES = vertices();
+		int s = _s - offset();
+		if (s < 0 || VERTICES <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		Dijkstra.search(adjacency(), s, t, distance, parent, new IndexedMinHeap(VERTICES));
+		return new ShortestPaths(this, s, distance, parent);
+	}
+
+	/**
+	 * CLRS, p. 651
+	 * Bellman-Ford algorithm from _s, stopping as soon as a pass over
+	 * the edges changes no distance. Negative edge weights are allowed.
+	 * If a cycle of negative weight can be reached from _s, the result
+	 * reports it in negativeCycle() and its distances are not final.
+	 * @param _s
+	 * @return
+	 */
+	public ShortestPaths shortestPathsBellmanFord(int _s) {
+		return bellmanFord(_s, false);
+	}
+	
+	/**
+	 * Bellman-Ford from _s with a FIFO queue of the vertices whose
+	 * distance has changed (SPFA), so that only their edges are relaxed.
+	 * Results are as for shortestPathsBellmanFord(_s).
+	 * @param _s
+	 * @return
+	 */
+	public ShortestPaths shortestPathsSpfa(int _s) {
+		return bellmanFord(_s, true);
+	}
+	
+	/**
+	 * Parallel Bellman-Ford from _s in the common ForkJoinPool,
+	 * with the default threshold
+	 * @param _s
+	 * @return
+	 */
+	public ShortestPaths shortestPathsBellmanFordParallel(int _s) {
+		return shortestPathsBellmanFordParallel(_s, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Parallel Bellman-Ford from _s. In each pass, every vertex takes the
+	 * lowest distance through its incoming edges given the distances of
+	 * the previous pass, with the vertices split among tasks in pool,
+	 * each taking at most threshold vertices. Results are as for
+	 * shortestPathsBellmanFord(_s), though the parents may differ where
+	 * there are several shortest paths. The graph must not be modified
+	 * during the search.
+	 * @param _s
+	 * @param pool
+	 * @param threshold
+	 * @return
+	 */
+	public ShortestPaths shortestPathsBellmanFordParallel(int _s, ForkJoinPool pool, int threshold) {
+		final int VERTICES = vertices();
+		int s = _s - offset();
+		if (s < 0 || VERTICES <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive");
+		}
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		int[] cycle = BellmanFord.parallel(adjacency(), s, distance, parent, pool, threshold);
+		return new ShortestPaths(this, s, distance, parent, cycle);
+	}
+	
+	/**
+	 * A* search from _s to _t, which settles vertices in ascending order
+	 * of distance plus h.estimate(v, _t). Only the distance of _t and
+	 * pathTo(_t) are final. The estimate must never exceed the weight of
+	 * a shortest path, for example one given by landmarks().
+	 * Throws an IllegalArgumentException if an edge of negative
+	 * weight is reached.
+	 * @param _s
+	 * @param _t
+	 * @param h
+	 * @return
+	 */
+	public ShortestPaths shortestPathAStar(int _s, int _t, Heuristic h) {
+		final int VERTICES = vertices();
+		int s = _s - offset(), t = _t - offset();
+		if (s < 0 || VERTICES <= s || t < 0 || VERTICES <= t) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		AStar.search(adjacency(), offset(), s, t, h, distance, parent, new IndexedMinHeap(VERTICES));
+		return new ShortestPaths(this, s, distance, parent);
+	}
+	
+	/**
+	 * A shortest path from _s to _t by Dijkstra's algorithm run forward
+	 * from _s and backward from _t, stopping once the least distances
+	 * left in the two queues add up to no less than the lightest path
+	 * found. Usually settles fewer vertices than a search from _s
+	 * alone. On a directed graph the backward search runs over the
+	 * reverse of the graph, which is built for each call.
+	 * Throws an IllegalArgumentException if an edge of negative
+	 * weight is reached.
+	 * @param _s
+	 * @param _t
+	 * @return The vertices of the path, from _s to _t, or an empty array
+	 * if _t cannot be reached from _s
+	 */
+	public int[] shortestPathDijkstraBidirectional(int _s, int _t) {
+		final int VERTICES = vertices();
+		int s = _s - offset(), t = _t - offset();
+		if (s < 0 || VERTICES <= s || t < 0 || VERTICES <= t) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		return BidirectionalSearch.dijkstra(adjacency(), offset(), s, t);
+	}
+	
+	/**
+	 * Chooses k landmarks by farthest-point selection and stores the
+	 * distances to and from them, in 4k bytes per vertex (8k if the graph
+	 * is directed), as a heuristic for shortestPathAStar().
+	 * Throws an IllegalArgumentException if an edge has negative weight.
+	 * @param k At least 1 and at most the number of vertices
+	 * @return
+	 */
+	public Landmarks landmarks(int k) {
+		if (k < 1 || vertices() < k) {
+			throw new IllegalArgumentException("Invalid number of landmarks");
+		}
+		return new Landmarks(this, adjacency(), k);
+	}
+	
+	private ShortestPaths bellmanFord(int _s, boolean queue) {
+		final int VERTICES = vertices();
+		int s = _s - offset();
+		if (s < 0 || VERTICES <= s) {
+			throw new IllegalArgumentException("Invalid vertex");
+		}
+		double[] distance = new double[VERTICES];
+		int[] parent = new int[VERTICES];
+		int[] cycle = queue ? BellmanFord.spfa(adjacency(), s, distance, parent)
+				: BellmanFord.search(adjacency(), s, distance, parent);
+		return new ShortestPaths(this, s, distance, parent, cycle);
+	}
+	
+	/**
+	 * Floyd-Warshall in the common ForkJoinPool, without next hops
+	 * @return
+	 */
+	public AllPairsShortestPaths shortestPathsFloydWarshall() {
+		return shortestPathsFloydWarshall(false, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Floyd-Warshall in the common ForkJoinPool
+	 * @param nextHops Whether to record the next hops needed for paths
+	 * @return
+	 */
+	public AllPairsShortestPaths shortestPathsFloydWarshall(boolean nextHops) {
+		return shortestPathsFloydWarshall(nextHops, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * CLRS, p. 695
+	 * Floyd-Warshall algorithm, processing the matrix in tiles so that
+	 * each pass over a tile stays in cache, and updating independent
+	 * tiles in parallel in pool. Negative edge weights are allowed,
+	 * but an IllegalStateException is thrown if the graph has a cycle
+	 * of negative weight, which includes any negative edge of an
+	 * undirected graph. The distance matrix takes 8 bytes per pair of
+	 * vertices, and next hops another 4.
+	 * @param nextHops Whether to record the next hops needed for paths
+	 * @param pool
+	 * @return
+	 */
+	public AllPairsShortestPaths shortestPathsFloydWarshall(boolean nextHops, ForkJoinPool pool) {
+		final int VERTICES = vertices();
+		if ((long) VERTICES * VERTICES > Integer.MAX_VALUE - 8) {
+			throw new UnsupportedOperationException("Too many vertices for a distance matrix");
+		}
+		double[] distance = new double[VERTICES * VERTICES];
+		int[] next = nextHops ? new int[VERTICES * VERTICES] : null;
+		WeightedAdjacency adj = adjacency();
+		FloydWarshall.initialize(adj, distance);
+		FloydWarshall.search(distance, VERTICES, pool);
+		if (nextHops) FloydWarshall.nextHops(adj, distance, next, pool);
+		return new AllPairsShortestPaths(this, distance, next);
+	}
+	
+// methods inherited from AbstractGraph
+	/**
+	 * The structure of the view is that of MatrixGraph, with weights
+	 * read from the weight matrix of this graph
+	 */
+	@Override
+	WeightedAdjacency adjacency() {
+		return new MatrixWeights(super.adjacency(), edgeWeight, false);
+	}
+	
+	/**
+	 * Adds the weights of a matrix to a view in which an arc is
+	 * the column of its target. For the reverse view, the matrix
+	 * is read by columns rather than transposed.
+	 */
+	private static class MatrixWeights implements WeightedAdjacency {
+		private final Adjacency structure;
+		private final double[][] weights;
+		private final boolean transposed;
+		private WeightedAdjacency reverse;
+		
+		MatrixWeights(Adjacency _structure, double[][] _weights, boolean _transposed) {
+			structure = _structure;
+			weights = _weights;
+			transposed = _transposed;
+			reverse = _structure.directed() ? null : this;
+		}
+		public int vertices() { return structure.vertices(); }
+		public boolean directed() { return structure.directed(); }
+		public int outDegree(int u) { return structure.outDegree(u); }
+		public int firstArc(int u) { return structure.firstArc(u); }
+		public int nextArc(int u, int arc) { return structure.nextArc(u, arc); }
+		public int target(int u, int arc) { return arc; }
+		public double weight(int u, int arc) {
+			return transposed ? weights[arc][u] : weights[u][arc];
+		}
+		public WeightedAdjacency reverse() {
+			if (reverse == null) {
+				MatrixWeights result = new MatrixWeights(structure.reverse(), weights, !transposed);
+				result.reverse = this;
+				reverse = result;
+			}
+			return reverse;
+		}
+	}
 
 
 }